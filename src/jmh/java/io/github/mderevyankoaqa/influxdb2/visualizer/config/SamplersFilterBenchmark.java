@@ -0,0 +1,95 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the samplers filter of the handleSampleResults: the regex matching per sample against the {@link SamplersFilter}.
+ *
+ * @author Michael Derevyanko
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SamplersFilterBenchmark {
+
+    private static final String REGEX = "^(Home Page|Login|Search)(-success|-failure)?$";
+
+    private final String[] labels = {"Home Page", "Login-success", "Search-failure", "Logout", "Home Page - GET /api/v1/items"};
+
+    private SamplersFilter regexFilter;
+    private SamplersFilter acceptAllFilter;
+    private SamplersFilter listFilter;
+    private int index;
+
+    /**
+     * Prepares the filters.
+     */
+    @Setup
+    public void setup() {
+        this.regexFilter = SamplersFilter.fromRegex(REGEX);
+        this.acceptAllFilter = SamplersFilter.fromRegex(".*");
+        this.listFilter = SamplersFilter.fromList("Home Page;Login-success;Search-failure", ";");
+    }
+
+    /**
+     * The previous filter: compiles the regex per sample.
+     *
+     * @return the decision.
+     */
+    @Benchmark
+    public boolean stringMatches() {
+        return this.nextLabel().matches(REGEX);
+    }
+
+    /**
+     * The previous filter with the default regex.
+     *
+     * @return the decision.
+     */
+    @Benchmark
+    public boolean stringMatchesAcceptAll() {
+        return this.nextLabel().matches(".*");
+    }
+
+    /**
+     * The compiled regex with the decisions cache.
+     *
+     * @return the decision.
+     */
+    @Benchmark
+    public boolean filterRegex() {
+        return this.regexFilter.isAccepted(this.nextLabel());
+    }
+
+    /**
+     * The default regex.
+     *
+     * @return the decision.
+     */
+    @Benchmark
+    public boolean filterAcceptAll() {
+        return this.acceptAllFilter.isAccepted(this.nextLabel());
+    }
+
+    /**
+     * The list of the sampler names.
+     *
+     * @return the decision.
+     */
+    @Benchmark
+    public boolean filterList() {
+        return this.listFilter.isAccepted(this.nextLabel());
+    }
+
+    /**
+     * Gets the next label of the round.
+     *
+     * @return the label.
+     */
+    private String nextLabel() {
+        this.index = (this.index + 1) % this.labels.length;
+        return this.labels[this.index];
+    }
+}
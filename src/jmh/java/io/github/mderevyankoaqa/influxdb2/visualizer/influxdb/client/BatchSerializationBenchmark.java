@@ -0,0 +1,152 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.CardinalityGuard;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ListenerSettings;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultLineProtocolEncoder;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultPointContext;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultPointProvider;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the line protocol serialization of the batch with the default size (2000 points), as it is sent in the write request.
+ *
+ * @author Michael Derevyanko
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BatchSerializationBenchmark {
+
+    private static final int BATCH_SIZE = 2000;
+
+    private final List<SampleResultPointContext> contexts = new ArrayList<>(BATCH_SIZE);
+    private final List<Point> points = new ArrayList<>(BATCH_SIZE);
+    private final List<String> records = new ArrayList<>(BATCH_SIZE);
+    private SampleResultLineProtocolEncoder encoder;
+
+    /**
+     * Prepares the batch of the sample results, the points and the records.
+     */
+    @Setup
+    public void setup() {
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(ListenerSettings.KEY_RUN_ID, "R001");
+        parameters.put(ListenerSettings.KEY_TEST_NAME, "Load Test");
+        parameters.put(ListenerSettings.KEY_NODE_NAME, "Test-Node");
+
+        this.encoder = new SampleResultLineProtocolEncoder(new ListenerSettings(new BackendListenerContext(parameters)), CardinalityGuard.unlimited(), null);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            HTTPSampleResult sampleResult = new HTTPSampleResult();
+            sampleResult.setSampleLabel("Request " + (i % 20));
+            sampleResult.setStampAndTime(now + i, 100 + i % 50);
+            sampleResult.setLatency(80);
+            sampleResult.setConnectTime(10);
+            sampleResult.setBytes(15_000L);
+            sampleResult.setSentBytes(350);
+            sampleResult.setSuccessful(true);
+            sampleResult.setResponseCode("200");
+
+            SampleResultPointContext context = new SampleResultPointContext();
+            context.setRunId("R001");
+            context.setTestName("Load Test");
+            context.setNodeName("Test-Node");
+            context.setSampleResult(sampleResult);
+            context.setSamplerType("request");
+            context.setTimeToSet((now + i) * 1_000_000L);
+            context.setResponseBodyLength(2000);
+
+            this.contexts.add(context);
+            this.points.add(new SampleResultPointProvider(context).getPoint());
+            this.records.add(this.encoder.encode(sampleResult, "request", sampleResult.getSampleLabel(), null, context.getTimeToSet()));
+        }
+    }
+
+    /**
+     * Serializes the prepared points.
+     *
+     * @return the request body.
+     */
+    @Benchmark
+    public String serializePoints() {
+
+        StringBuilder body = new StringBuilder(BATCH_SIZE * 400);
+        for (Point point : this.points) {
+            body.append(point.toLineProtocol(null, WritePrecision.NS)).append('\n');
+        }
+        return body.toString();
+    }
+
+    /**
+     * Joins the prepared records, as it is done for the buffered records.
+     *
+     * @return the request body.
+     */
+    @Benchmark
+    public String joinRecords() {
+        return String.join("\n", this.records);
+    }
+
+    /**
+     * Encodes the sample results directly to the request body.
+     *
+     * @return the request body.
+     */
+    @Benchmark
+    public String encodeSampleResults() {
+
+        StringBuilder body = new StringBuilder(BATCH_SIZE * 400);
+        for (SampleResultPointContext context : this.contexts) {
+            this.encoder.encodeTo(body, context.getSampleResult(), context.getSamplerType(), context.getSampleResult().getSampleLabel(), null, context.getTimeToSet());
+            body.append('\n');
+        }
+        return body.toString();
+    }
+
+    /**
+     * Joins the prepared records and compresses the body, as the HTTP client does with the gzip enabled.
+     *
+     * @return the size of the compressed body.
+     * @throws IOException never, the body is written to the memory.
+     */
+    @Benchmark
+    public int joinAndCompressRecords() throws IOException {
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(String.join("\n", this.records).getBytes(StandardCharsets.UTF_8));
+        }
+        return body.size();
+    }
+
+    /**
+     * Streams the prepared records to the compressed request body.
+     *
+     * @return the size of the compressed body.
+     * @throws IOException never, the body is written to the memory.
+     */
+    @Benchmark
+    public long streamCompressedBody() throws IOException {
+
+        Buffer body = new Buffer();
+        new LineProtocolRequestBody(this.records, 6).writeTo(body);
+        return body.size();
+    }
+}
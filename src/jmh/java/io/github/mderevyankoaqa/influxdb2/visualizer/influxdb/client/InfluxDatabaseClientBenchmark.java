@@ -0,0 +1,99 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InfluxDatabaseClient#collectData(String)} under the contention of the producer threads.
+ * The client points to the closed port, so the writer thread fails fast and only the producers side is measured.
+ *
+ * @author Michael Derevyanko
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class InfluxDatabaseClientBenchmark {
+
+    private static final String RECORD = "requestsRaw,nodeName=Test-Node,runId=R001,testName=Load,requestName=Home,responseCode=200,result=pass,samplerType=request "
+            + "connectTime=20i,count=1i,errorCount=0i,latency=100i,processingTime=80i,receivedBytes=15000i,responseTime=125i,sentBytes=350i 1700000000000000000";
+
+    private InfluxDatabaseClient client;
+
+    /**
+     * Creates the client.
+     */
+    @Setup
+    public void setup() {
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_URL, "http://127.0.0.1:1/");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_TOKEN, "token");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_ORG, "org");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_BUCKET, "bucket");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_MAX_BATCH_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_MAX_BATCH_SIZE));
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_FLUSH_INTERVAL, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_FLUSH_INTERVAL));
+        parameters.put(InfluxDBConfig.KEY_RESPONSE_BODY_LENGTH, Integer.toString(InfluxDBConfig.DEFAULT_RESPONSE_BODY_LENGTH));
+
+        InfluxDBConfig config = new InfluxDBConfig(new BackendListenerContext(parameters));
+        this.client = InfluxDatabaseClientRegistry.acquire(config, LoggerFactory.getLogger(InfluxDatabaseClientBenchmark.class));
+    }
+
+    /**
+     * Closes the client.
+     */
+    @TearDown
+    public void tearDown() {
+        InfluxDatabaseClientRegistry.release(this.client);
+    }
+
+    /**
+     * The single producer, as the backend listener thread.
+     */
+    @Benchmark
+    @Threads(1)
+    public void collectData1Thread() {
+        this.client.collectData(RECORD);
+    }
+
+    /**
+     * 4 producers.
+     */
+    @Benchmark
+    @Threads(4)
+    public void collectData4Threads() {
+        this.client.collectData(RECORD);
+    }
+
+    /**
+     * 8 producers.
+     */
+    @Benchmark
+    @Threads(8)
+    public void collectData8Threads() {
+        this.client.collectData(RECORD);
+    }
+
+    /**
+     * 16 producers.
+     */
+    @Benchmark
+    @Threads(16)
+    public void collectData16Threads() {
+        this.client.collectData(RECORD);
+    }
+
+    /**
+     * 32 producers.
+     */
+    @Benchmark
+    @Threads(32)
+    public void collectData32Threads() {
+        this.client.collectData(RECORD);
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the escaping and truncating of the response body of the failures.
+ *
+ * @author Michael Derevyanko
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class InfluxDatabaseUtilityBenchmark {
+
+    /**
+     * The size of the response body.
+     */
+    @Param({"512", "65536"})
+    public int bodySize;
+
+    private String body;
+
+    /**
+     * Prepares the HTML like response body.
+     */
+    @Setup
+    public void setup() {
+
+        StringBuilder builder = new StringBuilder(this.bodySize);
+        while (builder.length() < this.bodySize) {
+            builder.append("<div class=\"error\">\r\n  Internal Server Error, id=42 </div>\n");
+        }
+        builder.setLength(this.bodySize);
+        this.body = builder.toString();
+    }
+
+    /**
+     * Escapes the whole body.
+     *
+     * @return the escaped body.
+     */
+    @Benchmark
+    public String getEscapedString() {
+        return InfluxDatabaseUtility.getEscapedString(this.body);
+    }
+
+    /**
+     * Truncates the body.
+     *
+     * @return the truncated body.
+     */
+    @Benchmark
+    public String getSubstring() {
+        return InfluxDatabaseUtility.getSubstring(this.body, 2000);
+    }
+
+    /**
+     * Escapes and truncates the body, as it is done for the failures.
+     *
+     * @return the escaped and truncated body.
+     */
+    @Benchmark
+    public String getEscapedSubstring() {
+        return InfluxDatabaseUtility.getSubstring(InfluxDatabaseUtility.getEscapedString(this.body), 2000);
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.CardinalityGuard;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ListenerSettings;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the line protocol encoding of the sample result by {@link SampleResultLineProtocolEncoder}
+ * with the {@link com.influxdb.client.write.Point} built by {@link SampleResultPointProvider}.
+ * Run with the 'jmh' gradle task, the GC profiler reports the allocation per operation.
+ *
+ * @author Michael Derevyanko
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SampleResultEncodingBenchmark {
+
+    /**
+     * Whether the sample is failed, the failures carry the error message and the response body.
+     */
+    @Param({"false", "true"})
+    public boolean failed;
+
+    private SampleResultPointContext sampleResultContext;
+    private SampleResultLineProtocolEncoder encoder;
+    private StringBuilder builder;
+
+    /**
+     * Prepares the sample result.
+     */
+    @Setup
+    public void setup() {
+
+        HTTPSampleResult sampleResult = new HTTPSampleResult();
+        sampleResult.setSampleLabel("Home Page - GET /api/v1/items");
+        sampleResult.setStampAndTime(System.currentTimeMillis(), 125);
+        sampleResult.setLatency(100);
+        sampleResult.setConnectTime(20);
+        sampleResult.setResponseData("<html><body>\nInternal Server Error\n</body></html>", "UTF-8");
+        sampleResult.setBytes(15_000L);
+        sampleResult.setSentBytes(350);
+        sampleResult.setSuccessful(!this.failed);
+        sampleResult.setResponseCode(this.failed ? "500" : "200");
+        if (this.failed) {
+            sampleResult.setErrorCount(1);
+        }
+
+        this.sampleResultContext = new SampleResultPointContext();
+        this.sampleResultContext.setRunId("R001");
+        this.sampleResultContext.setTestName("Load Test");
+        this.sampleResultContext.setNodeName("Test-Node");
+        this.sampleResultContext.setSampleResult(sampleResult);
+        this.sampleResultContext.setSamplerType("request");
+        this.sampleResultContext.setTimeToSet(System.currentTimeMillis() * 1_000_000L);
+        this.sampleResultContext.setErrorBodyToBeSaved(true);
+        this.sampleResultContext.setResponseBodyLength(2000);
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(ListenerSettings.KEY_RUN_ID, "R001");
+        parameters.put(ListenerSettings.KEY_TEST_NAME, "Load Test");
+        parameters.put(ListenerSettings.KEY_NODE_NAME, "Test-Node");
+        parameters.put(ListenerSettings.KEY_INCLUDE_BODY_OF_FAILURES, "true");
+        parameters.put(InfluxDBConfig.KEY_RESPONSE_BODY_LENGTH, "2000");
+
+        this.encoder = new SampleResultLineProtocolEncoder(new ListenerSettings(new BackendListenerContext(parameters)), CardinalityGuard.unlimited(), null);
+        this.builder = new StringBuilder(512);
+    }
+
+    /**
+     * Builds the {@link com.influxdb.client.write.Point} only.
+     *
+     * @return the point.
+     */
+    @Benchmark
+    public Point pointProviderGetPoint() {
+        return new SampleResultPointProvider(this.sampleResultContext).getPoint();
+    }
+
+    /**
+     * The previous path: builds the {@link com.influxdb.client.write.Point}, then serializes it.
+     *
+     * @return the line protocol record.
+     */
+    @Benchmark
+    public String pointToLineProtocol() {
+        return new SampleResultPointProvider(this.sampleResultContext).getPoint().toLineProtocol(null, WritePrecision.NS);
+    }
+
+    /**
+     * The direct encoding to the line protocol record.
+     *
+     * @return the line protocol record.
+     */
+    @Benchmark
+    public String encoderToLineProtocol() {
+        return this.encoder.encode(this.sampleResultContext.getSampleResult(), this.sampleResultContext.getSamplerType(),
+                this.sampleResultContext.getSampleResult().getSampleLabel(), null, this.sampleResultContext.getTimeToSet());
+    }
+
+    /**
+     * The direct encoding to the reused builder, shows the cost without the final string.
+     *
+     * @return the builder with the record.
+     */
+    @Benchmark
+    public StringBuilder encoderToBuilder() {
+        this.builder.setLength(0);
+        this.encoder.encodeTo(this.builder, this.sampleResultContext.getSampleResult(), this.sampleResultContext.getSamplerType(),
+                this.sampleResultContext.getSampleResult().getSampleLabel(), null, this.sampleResultContext.getTimeToSet());
+        return this.builder;
+    }
+}
@@ -4,6 +4,7 @@ import org.apache.jmeter.samplers.SampleResult;
 
 /**
  * The data object with parameters to create Result {@link com.influxdb.client.write.Point}.
+ * Is used by the {@link SampleResultPointProvider} baseline of the encoding benchmarks only.
  * @author Michael Derevyanko
  */
 public class SampleResultPointContext {
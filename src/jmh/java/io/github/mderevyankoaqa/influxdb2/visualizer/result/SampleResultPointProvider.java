@@ -7,6 +7,7 @@ import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatab
 
 /**
  * The provider of the Influxdb {@link Point} based on the sample result.
+ * The previous way the requestsRaw points were built, is kept as the baseline of the encoding benchmarks only.
  * @author Michael Derevyanko
  */
 public class SampleResultPointProvider {
@@ -2,12 +2,25 @@ package io.github.mderevyankoaqa.influxdb2.visualizer;
 
 import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.CardinalityGuard;
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.NormalizationRules;
 import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ListenerSettings;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.SamplersFilter;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.SamplesWriteMode;
 import io.github.mderevyankoaqa.influxdb2.visualizer.config.TestStartEndMeasurement;
 import io.github.mderevyankoaqa.influxdb2.visualizer.config.VirtualUsersMeasurement;
 import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseClient;
-import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultPointContext;
-import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultPointProvider;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseClientRegistry;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.ErrorBodyRegistry;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultAggregator;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultLineProtocolEncoder;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultSampler;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultVisitor;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultWalker;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleTimestampGenerator;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.TestSummaryCollector;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.ThroughputCounter;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
 import org.apache.jmeter.samplers.SampleResult;
@@ -15,11 +28,8 @@ import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.JMeterContextService.ThreadCounts;
 import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
 import org.apache.jmeter.visualizers.backend.BackendListenerContext;
-import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.security.SecureRandom;
-import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
@@ -40,24 +50,12 @@ public class InfluxDatabaseBackendListenerClient extends AbstractBackendListener
      */
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(InfluxDatabaseBackendListenerClient.class);
 
-    /**
-     * Parameter Keys.
-     */
-    private static final String KEY_USE_REGEX_FOR_SAMPLER_LIST = "useRegexForSamplerList";
-    private static final String KEY_TEST_NAME = "testName";
-    private static final String KEY_RUN_ID = "runId";
-    private static final String KEY_INCLUDE_BODY_OF_FAILURES = "saveResponseBodyOfFailures";
-    private static final String KEY_NODE_NAME = "nodeName";
-    private static final String KEY_SAMPLERS_LIST = "samplersList";
-    private static final String KEY_RECORD_SUB_SAMPLES = "recordSubSamples";
-
     private final WritePrecision writePrecision = WritePrecision.MS;
 
     /**
      * Constants.
      */
     private static final String SEPARATOR = ";";
-    private static final int ONE_MS_IN_NANOSECONDS = 1000000;
 
     /**
      * Scheduler for periodic metric aggregation.
@@ -65,98 +63,153 @@ public class InfluxDatabaseBackendListenerClient extends AbstractBackendListener
     private ScheduledThreadPoolExecutor scheduler;
 
     /**
-     * Name of the test.
+     * The listener settings read when the test starts: test name, run id, node name, etc.
+     * A unique identifier for a single execution (aka 'run') of a load test: in a CI/CD automated performance test, a Jenkins or Bamboo build id would be a good value for the run id.
+     */
+    private ListenerSettings settings;
+
+    /**
+     * Filter of the samplers to record.
      */
-    private String testName;
+    private SamplersFilter samplersFilter;
 
     /**
-     * A unique identifier for a single execution (aka 'run') of a load test.
-     * In a CI/CD automated performance test, a Jenkins or Bamboo build id would be a good value for this.
+     * Generator of the unique timestamps of the samples.
      */
-    private String runId;
+    private SampleTimestampGenerator timestampGenerator;
 
     /**
-     * Name of the name.
+     * The Influx DB Config.
      */
-    private String nodeName;
+    private InfluxDBConfig influxDBConfig;
 
     /**
-     * Regex if samplers are defined through regular expression.
+     * The client of the Influx DB, is shared with the other listeners writing to the same bucket.
      */
-    private String regexForSamplerList;
+    private InfluxDatabaseClient influxDatabaseClient;
 
     /**
-     * Set of samplers to record.
+     * The guard of the series cardinality.
      */
-    private Set<String> samplersToFilter;
+    private CardinalityGuard cardinalityGuard;
 
     /**
-     * Random number generator.
+     * The encoder of the sample results to the line protocol.
      */
-    private SecureRandom randomNumberGenerator;
+    private SampleResultLineProtocolEncoder sampleResultEncoder;
 
     /**
-     * Indicates whether to record Sub samples.
+     * The aggregator of the sample results, is used in the aggregated and the sampled modes only.
      */
-    private boolean recordSubSamples;
+    private SampleResultAggregator sampleResultAggregator;
 
     /**
-     * The Influx DB Config.
+     * The sampler of the successful sample results, is used in the sampled mode only.
      */
-    private InfluxDBConfig influxDBConfig;
+    private SampleResultSampler sampleResultSampler;
 
-    private Timer timer;
+    /**
+     * The counter of the live throughput, is used when the throughput interval is set only.
+     */
+    private ThroughputCounter throughputCounter;
+
+    /**
+     * The time of the previous throughput point, in nanoseconds.
+     */
+    private long throughputTickNanos;
+
+    /**
+     * The collector of the test summary, is used when the summary is written only.
+     */
+    private TestSummaryCollector testSummaryCollector;
 
     private ScheduledFuture<?> scheduledFuture;
 
+    private ScheduledFuture<?> aggregationFuture;
+
+    private ScheduledFuture<?> throughputFuture;
+
     /**
      * Processes sampler results.
      */
     public void handleSampleResults(List<SampleResult> sampleResults, BackendListenerContext context) {
-        // Gather all the listeners
-        List<SampleResult> allSampleResults = new ArrayList<>();
+        long start = System.nanoTime();
+
+        InfluxDatabaseClient client = this.influxDatabaseClient;
+        SampleResultVisitor visitor = (sampleResult, parent) -> this.handleSampleResult(client, sampleResult, parent);
+
+        // The sub samples are visited in place, at any level till the max depth.
+        int maxDepth = this.settings.isRecordSubSamples() ? this.settings.getSubSamplesMaxDepth() : 0;
+        int handled = 0;
         for (SampleResult sampleResult : sampleResults) {
-            allSampleResults.add(sampleResult);
+            handled += SampleResultWalker.walk(sampleResult, maxDepth, visitor);
+        }
 
-            if (recordSubSamples) {
-                Collections.addAll(allSampleResults, sampleResult.getSubResults());
-            }
+        client.getStatistics().onSampleResultsHandled(handled, System.nanoTime() - start);
+    }
+
+    /**
+     * Handles the sample result or the sub result: adds it to the user metrics, writes or aggregates it if the sampler is accepted.
+     * @param client the {@link InfluxDatabaseClient}.
+     * @param sampleResult the {@link SampleResult}.
+     * @param parent the parent {@link SampleResult}, null for the top level result.
+     */
+    private void handleSampleResult(InfluxDatabaseClient client, SampleResult sampleResult, SampleResult parent) {
+
+        getUserMetrics().add(sampleResult);
+        // Determine the type of sample, whether it is a request or a transaction controller
+        String samplerType = "transaction";
+        if (sampleResult instanceof HTTPSampleResult){
+            samplerType = "request";
+        }
+
+        if (!this.samplersFilter.isAccepted(sampleResult.getSampleLabel())) {
+            return;
+        }
+
+        SamplesWriteMode samplesWriteMode = this.settings.getSamplesWriteMode();
+        String requestName = this.cardinalityGuard.getRequestName(sampleResult.getSampleLabel());
+
+        if (this.throughputCounter != null) {
+            this.throughputCounter.add(requestName, sampleResult, parent == null);
+        }
+
+        if (this.testSummaryCollector != null) {
+            this.testSummaryCollector.add(requestName, sampleResult, parent == null);
         }
 
-        for (SampleResult sampleResult : allSampleResults) {
-            getUserMetrics().add(sampleResult);
-            // Determine the type of sample, whether it is a request or a transaction controller
-            String samplerType = "transaction";
-            if (sampleResult instanceof HTTPSampleResult){
-                samplerType = "request";
+        if (samplesWriteMode != SamplesWriteMode.RAW) {
+            // The aggregated points keep the exact totals in the sampled mode as well.
+            this.sampleResultAggregator.add(requestName, sampleResult, samplerType);
+
+            if (samplesWriteMode == SamplesWriteMode.AGGREGATED) {
+                return;
             }
+        }
 
-            if ((null != regexForSamplerList && sampleResult.getSampleLabel().matches(regexForSamplerList))
-                    || samplersToFilter.contains(sampleResult.getSampleLabel())) {
-
-                SampleResultPointContext sampleResultContext = new SampleResultPointContext();
-                sampleResultContext.setRunId(this.runId);
-                sampleResultContext.setTestName(this.testName);
-                sampleResultContext.setNodeName(this.nodeName);
-                sampleResultContext.setSampleResult(sampleResult);
-                sampleResultContext.setSamplerType(samplerType);
-                sampleResultContext.setTimeToSet(System.currentTimeMillis() * ONE_MS_IN_NANOSECONDS + this.getUniqueNumberForTheSamplerThread());
-                sampleResultContext.setErrorBodyToBeSaved(context.getBooleanParameter(KEY_INCLUDE_BODY_OF_FAILURES, false));
-                sampleResultContext.setResponseBodyLength(this.influxDBConfig.getResponseBodyLength());
-                var sampleResultPointProvider = new SampleResultPointProvider(sampleResultContext);
-
-                Point resultPoint = sampleResultPointProvider.getPoint();
-                InfluxDatabaseClient.getInstance(this.influxDBConfig, LOGGER).collectData(resultPoint);
+        // The timestamps are unique per the written tags, so the labels collapsed by the guard do not overwrite each other.
+        String parentRequestName = parent == null ? null : this.cardinalityGuard.getRequestName(parent.getSampleLabel());
+
+        // The failed samples are always written, the successful ones are sampled before they are encoded.
+        if (samplesWriteMode == SamplesWriteMode.SAMPLED && sampleResult.getErrorCount() == 0) {
+            long ticket = this.sampleResultSampler.reserve(requestName);
+            if (ticket >= 0) {
+                this.sampleResultSampler.put(requestName, ticket, this.sampleResultEncoder.encode(sampleResult, samplerType, requestName, parentRequestName,
+                        this.timestampGenerator.getTimestamp(sampleResult, requestName, parentRequestName)));
             }
+            return;
         }
+
+        client.collectData(this.sampleResultEncoder.encode(sampleResult, samplerType, requestName, parentRequestName,
+                this.timestampGenerator.getTimestamp(sampleResult, requestName, parentRequestName)));
     }
 
     @Override
     public Arguments getDefaultParameters() {
         Arguments arguments = new Arguments();
-        arguments.addArgument(KEY_TEST_NAME, "Test");
-        arguments.addArgument(KEY_NODE_NAME, "Test-Node");
-        arguments.addArgument(KEY_RUN_ID, "R001");
+        arguments.addArgument(ListenerSettings.KEY_TEST_NAME, ListenerSettings.DEFAULT_TEST_NAME);
+        arguments.addArgument(ListenerSettings.KEY_NODE_NAME, ListenerSettings.DEFAULT_NODE_NAME);
+        arguments.addArgument(ListenerSettings.KEY_RUN_ID, ListenerSettings.DEFAULT_RUN_ID);
         arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_URL, InfluxDBConfig.DEFAULT_INFLUXDB_URL);
         arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_TOKEN, InfluxDBConfig.DEFAULT_INFLUX_DB_TOKEN);
         arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_ORG, InfluxDBConfig.DEFAULT_INFLUX_DB_ORG);
@@ -164,63 +217,128 @@ public class InfluxDatabaseBackendListenerClient extends AbstractBackendListener
         arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_FLUSH_INTERVAL, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_FLUSH_INTERVAL));
         arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_MAX_BATCH_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_MAX_BATCH_SIZE));
         arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_THRESHOLD_ERROR, Integer.toString(InfluxDBConfig.DEFAULT_THRESHOLD_ERROR));
-        arguments.addArgument(KEY_SAMPLERS_LIST, ".*");
-        arguments.addArgument(KEY_USE_REGEX_FOR_SAMPLER_LIST, "true");
-        arguments.addArgument(KEY_RECORD_SUB_SAMPLES, "true");
-        arguments.addArgument(KEY_INCLUDE_BODY_OF_FAILURES, "true");
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_MAX_IN_FLIGHT_BATCHES, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_MAX_IN_FLIGHT_BATCHES));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_BUFFER_MAX_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_BUFFER_MAX_SIZE));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_OVERFLOW_POLICY, InfluxDBConfig.DEFAULT_INFLUX_DB_OVERFLOW_POLICY);
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_CLOSE_TIMEOUT, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_CLOSE_TIMEOUT));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_CLOSE_PARALLELISM, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_CLOSE_PARALLELISM));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_CAPTURE_DIRECTORY, InfluxDBConfig.DEFAULT_INFLUX_DB_CAPTURE_DIRECTORY);
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_CAPTURE_FILE_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_CAPTURE_FILE_SIZE));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_ADAPTIVE_BATCHING, Boolean.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_ADAPTIVE_BATCHING));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_MIN_BATCH_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_MIN_BATCH_SIZE));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_TARGET_WRITE_LATENCY, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_TARGET_WRITE_LATENCY));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_SPOOL_DIRECTORY, InfluxDBConfig.DEFAULT_INFLUX_DB_SPOOL_DIRECTORY);
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_SPOOL_MAX_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_SPOOL_MAX_SIZE));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_RELAY_ADDRESS, InfluxDBConfig.DEFAULT_INFLUX_DB_RELAY_ADDRESS);
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_TRANSPORT, InfluxDBConfig.DEFAULT_INFLUX_DB_TRANSPORT);
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_COMPRESSION_LEVEL, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_COMPRESSION_LEVEL));
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_SOCKET_ADDRESS, InfluxDBConfig.DEFAULT_INFLUX_DB_SOCKET_ADDRESS);
+        arguments.addArgument(InfluxDBConfig.KEY_INFLUX_DB_UDP_PAYLOAD_SIZE, Integer.toString(InfluxDBConfig.DEFAULT_INFLUX_DB_UDP_PAYLOAD_SIZE));
+        arguments.addArgument(ListenerSettings.KEY_SAMPLERS_LIST, ListenerSettings.DEFAULT_SAMPLERS_LIST);
+        arguments.addArgument(ListenerSettings.KEY_USE_REGEX_FOR_SAMPLER_LIST, "true");
+        arguments.addArgument(ListenerSettings.KEY_RECORD_SUB_SAMPLES, "true");
+        arguments.addArgument(ListenerSettings.KEY_SUB_SAMPLES_MAX_DEPTH, Integer.toString(ListenerSettings.DEFAULT_SUB_SAMPLES_MAX_DEPTH));
+        arguments.addArgument(ListenerSettings.KEY_INCLUDE_BODY_OF_FAILURES, "true");
+        arguments.addArgument(ListenerSettings.KEY_DEDUPLICATE_BODY_OF_FAILURES, "false");
         arguments.addArgument(InfluxDBConfig.KEY_RESPONSE_BODY_LENGTH, Integer.toString(InfluxDBConfig.DEFAULT_RESPONSE_BODY_LENGTH));
+        arguments.addArgument(ListenerSettings.KEY_SAMPLES_WRITE_MODE, ListenerSettings.DEFAULT_SAMPLES_WRITE_MODE);
+        arguments.addArgument(ListenerSettings.KEY_SAMPLES_RESERVOIR_SIZE, Integer.toString(ListenerSettings.DEFAULT_SAMPLES_RESERVOIR_SIZE));
+        arguments.addArgument(ListenerSettings.KEY_THROUGHPUT_INTERVAL, Integer.toString(ListenerSettings.DEFAULT_THROUGHPUT_INTERVAL));
+        arguments.addArgument(ListenerSettings.KEY_WRITE_TEST_SUMMARY, "true");
+        arguments.addArgument(ListenerSettings.KEY_TAG_NORMALIZATION_RULES, "");
+        arguments.addArgument(ListenerSettings.KEY_MAX_TAG_VALUES, Integer.toString(ListenerSettings.DEFAULT_MAX_TAG_VALUES));
+        arguments.addArgument(ListenerSettings.KEY_ERROR_TEXT_AS_FIELDS, "false");
 
         return arguments;
     }
 
     @Override
     public void setupTest(BackendListenerContext context) {
-        this.testName = context.getParameter(KEY_TEST_NAME, "Test");
-        this.runId = context.getParameter(KEY_RUN_ID, "R001"); //Will be used to compare performance of R001, R002, etc of 'Test'
-        this.randomNumberGenerator = new SecureRandom ();
-        this.nodeName = context.getParameter(KEY_NODE_NAME, "Test-Node");
+        // The settings are read once, the samples processing never reads the parameters.
+        this.settings = new ListenerSettings(context);
+        this.timestampGenerator = new SampleTimestampGenerator();
+        this.cardinalityGuard = new CardinalityGuard(NormalizationRules.parse(this.settings.getTagNormalizationRules()),
+                this.settings.getMaxTagValues(),
+                this.settings.isErrorTextAsFields());
 
         this.setupInfluxClient(context);
 
         Point setupPoint = Point.measurement(TestStartEndMeasurement.MEASUREMENT_NAME).time(System.currentTimeMillis(), writePrecision)
                 .addTag(TestStartEndMeasurement.Tags.TYPE, TestStartEndMeasurement.Values.STARTED)
-                .addTag(TestStartEndMeasurement.Tags.NODE_NAME, this.nodeName)
-                .addTag(TestStartEndMeasurement.Tags.RUN_ID, this.runId)
-                .addTag(TestStartEndMeasurement.Tags.TEST_NAME, this.testName)
+                .addTag(TestStartEndMeasurement.Tags.NODE_NAME, this.settings.getNodeName())
+                .addTag(TestStartEndMeasurement.Tags.RUN_ID, this.settings.getRunId())
+                .addTag(TestStartEndMeasurement.Tags.TEST_NAME, this.settings.getTestName())
                 .addField(TestStartEndMeasurement.Fields.PLACEHOLDER, "1");
 
-        InfluxDatabaseClient.getInstance(influxDBConfig, LOGGER).collectData(setupPoint);
+        this.influxDatabaseClient.collectData(setupPoint);
+
+        this.parseSamplers();
+
+        // Each distinct failure body is written once, the requests carry its hash.
+        ErrorBodyRegistry errorBodyRegistry = null;
+        if (this.settings.isDeduplicateResponseBodyOfFailures()) {
+            errorBodyRegistry = new ErrorBodyRegistry(this.settings.getRunId(), this.settings.getTestName(), this.settings.getNodeName(),
+                    this.influxDatabaseClient::collectData);
+        }
+        this.sampleResultEncoder = new SampleResultLineProtocolEncoder(this.settings, this.cardinalityGuard, errorBodyRegistry);
 
-        this.parseSamplers(context);
         this.scheduler = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(2);
         this.scheduler.setRemoveOnCancelPolicy(true);
 
         this.scheduledFuture = this.scheduler.scheduleAtFixedRate(this, 1, 1, TimeUnit.SECONDS);
 
-        // Indicates whether to write sub sample records to the database
-        this.recordSubSamples = Boolean.parseBoolean(context.getParameter(KEY_RECORD_SUB_SAMPLES, "false"));
+        // The listener statistics are written by the client each flush interval, once per client shared by the listeners.
+        this.influxDatabaseClient.writeStatistics(this.settings.getNodeName(), this.settings.getRunId(), this.settings.getTestName());
+
+        // The aggregated results are written each flush interval.
+        int flushInterval = Math.max(1, this.influxDBConfig.getInfluxdbFlushInterval());
+
+        if (this.settings.getSamplesWriteMode() != SamplesWriteMode.RAW) {
+            this.sampleResultAggregator = new SampleResultAggregator(this.settings.getRunId(), this.settings.getTestName(), this.settings.getNodeName());
+            if (this.settings.getSamplesWriteMode() == SamplesWriteMode.SAMPLED) {
+                this.sampleResultSampler = new SampleResultSampler(this.settings.getSamplesReservoirSize());
+            }
+            this.aggregationFuture = this.scheduler.scheduleAtFixedRate(this::addAggregatedMetrics, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+
+        // The throughput is written by its own tick, usually more often than the flush interval.
+        int throughputInterval = this.settings.getThroughputInterval();
+        if (throughputInterval > 0) {
+            this.throughputCounter = new ThroughputCounter(this.settings.getRunId(), this.settings.getTestName(), this.settings.getNodeName());
+            this.throughputTickNanos = System.nanoTime();
+            this.throughputFuture = this.scheduler.scheduleAtFixedRate(this::addThroughputMetrics, throughputInterval, throughputInterval, TimeUnit.MILLISECONDS);
+        }
+
+        if (this.settings.isWriteTestSummary()) {
+            this.testSummaryCollector = new TestSummaryCollector(this.settings.getRunId(), this.settings.getTestName(), this.settings.getNodeName());
+        }
     }
 
     @Override
     public void teardownTest(BackendListenerContext context) throws Exception {
         LOGGER.info("Shutting down influxDB scheduler...");
 
-        // Stop importing data by timer.
-        this.timer.cancel();
-
         this.scheduledFuture.cancel(false);
+        if (this.aggregationFuture != null) {
+            this.aggregationFuture.cancel(false);
+        }
+        if (this.throughputFuture != null) {
+            this.throughputFuture.cancel(false);
+        }
         this.scheduler.shutdown();
 
         this.addVirtualUsersMetrics(0, 0, 0, 0, JMeterContextService.getThreadCounts().finishedThreads);
 
         Point teardownPoint = Point.measurement(TestStartEndMeasurement.MEASUREMENT_NAME).time(System.currentTimeMillis(), writePrecision)
                 .addTag(TestStartEndMeasurement.Tags.TYPE, TestStartEndMeasurement.Values.FINISHED)
-                .addTag(TestStartEndMeasurement.Tags.NODE_NAME, this.nodeName)
-                .addTag(TestStartEndMeasurement.Tags.RUN_ID, this.runId)
-                .addTag(TestStartEndMeasurement.Tags.TEST_NAME, this.testName)
+                .addTag(TestStartEndMeasurement.Tags.NODE_NAME, this.settings.getNodeName())
+                .addTag(TestStartEndMeasurement.Tags.RUN_ID, this.settings.getRunId())
+                .addTag(TestStartEndMeasurement.Tags.TEST_NAME, this.settings.getTestName())
                 .addField(TestStartEndMeasurement.Fields.PLACEHOLDER, "1");
 
-        InfluxDatabaseClient.getInstance(this.influxDBConfig, LOGGER).collectData(teardownPoint);
+        this.influxDatabaseClient.collectData(teardownPoint);
 
         try {
             LOGGER.info("influxDB scheduler terminated!");
@@ -231,8 +349,22 @@ public class InfluxDatabaseBackendListenerClient extends AbstractBackendListener
             LOGGER.error("Error waiting for end of scheduler " + e);
         }
 
-        InfluxDatabaseClient.getInstance(influxDBConfig, LOGGER).close();
-        this.samplersToFilter.clear();
+        // Writes the last interval of the aggregated results once the scheduler is stopped.
+        if (this.sampleResultAggregator != null) {
+            this.addAggregatedMetrics();
+        }
+
+        if (this.throughputCounter != null) {
+            this.addThroughputMetrics();
+        }
+
+        if (this.testSummaryCollector != null) {
+            this.addTestSummaryMetrics();
+        }
+
+        this.cardinalityGuard.logCardinality(LOGGER);
+
+        InfluxDatabaseClientRegistry.release(this.influxDatabaseClient);
         super.teardownTest(context);
     }
 
@@ -258,32 +390,21 @@ public class InfluxDatabaseBackendListenerClient extends AbstractBackendListener
 
         this.influxDBConfig = new InfluxDBConfig(context);
 
-
-        InfluxDatabaseClient.getInstance(this.influxDBConfig, LOGGER).setupInfluxClient();
-
-        this.importDataByTimer(this.influxDBConfig, LOGGER);
-
+        // The client owns the writer thread, it imports the data by the flush interval.
+        this.influxDatabaseClient = InfluxDatabaseClientRegistry.acquire(this.influxDBConfig, LOGGER);
     }
 
     /**
-     * Parses list of samplers.
-     *
-     * @param context {@link BackendListenerContext}.
+     * Parses list of samplers, compiles the regex once.
      */
-    private void parseSamplers(BackendListenerContext context) {
+    private void parseSamplers() {
 
-        //List of samplers to record.
-        String samplersList = context.getParameter(KEY_SAMPLERS_LIST, "");
-        this.samplersToFilter = new HashSet<>();
+        String samplersList = this.settings.getSamplersList();
 
-        if (context.getBooleanParameter(KEY_USE_REGEX_FOR_SAMPLER_LIST, false)) {
-            this.regexForSamplerList = samplersList;
+        if (this.settings.isUseRegexForSamplerList()) {
+            this.samplersFilter = SamplersFilter.fromRegex(samplersList);
         } else {
-            this.regexForSamplerList = null;
-            String[] samplers = samplersList.split(SEPARATOR);
-
-            this.samplersToFilter = new HashSet<>();
-            Collections.addAll(this.samplersToFilter, samplers);
+            this.samplersFilter = SamplersFilter.fromList(samplersList, SEPARATOR);
         }
     }
 
@@ -297,36 +418,50 @@ public class InfluxDatabaseBackendListenerClient extends AbstractBackendListener
                 .addField(VirtualUsersMeasurement.Fields.MEAN_ACTIVE_THREADS, meanActiveThreads)
                 .addField(VirtualUsersMeasurement.Fields.STARTED_THREADS, startedThreads)
                 .addField(VirtualUsersMeasurement.Fields.FINISHED_THREADS, finishedThreads)
-                .addTag(VirtualUsersMeasurement.Tags.NODE_NAME, this.nodeName)
-                .addTag(VirtualUsersMeasurement.Tags.TEST_NAME, this.testName)
-                .addTag(VirtualUsersMeasurement.Tags.RUN_ID, this.runId);
+                .addTag(VirtualUsersMeasurement.Tags.NODE_NAME, this.settings.getNodeName())
+                .addTag(VirtualUsersMeasurement.Tags.TEST_NAME, this.settings.getTestName())
+                .addTag(VirtualUsersMeasurement.Tags.RUN_ID, this.settings.getRunId());
 
-        InfluxDatabaseClient.getInstance(this.influxDBConfig, LOGGER).collectData(virtualUsersMetricsPoint);
+        this.influxDatabaseClient.collectData(virtualUsersMetricsPoint);
     }
 
     /**
-     * Try to get a unique number for the sampler thread.
+     * Writes the sample results aggregated since the previous call, and the sampled ones in the sampled mode.
      */
-    private int getUniqueNumberForTheSamplerThread() {
+    private void addAggregatedMetrics() {
 
-        return randomNumberGenerator.nextInt(ONE_MS_IN_NANOSECONDS);
+        for (Point point : this.sampleResultAggregator.getPoints(System.currentTimeMillis())) {
+            this.influxDatabaseClient.collectData(point);
+        }
+
+        if (this.sampleResultSampler != null) {
+            for (String record : this.sampleResultSampler.drainRecords()) {
+                this.influxDatabaseClient.collectData(record);
+            }
+        }
     }
 
     /**
-     * Imports data by timer set in the settings.
-     * @param conf uses {@link InfluxDBConfig}
-     * @param logger uses {@link Logger}
+     * Writes the throughput counted since the previous call, the rates are calculated by the actual time between the calls.
      */
-    public void importDataByTimer(InfluxDBConfig conf, Logger logger) {
-        this.timer = new Timer();
-        this.timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
+    private void addThroughputMetrics() {
 
-                LOGGER.debug("Running the timer: " + LocalDate.now());
-                InfluxDatabaseClient.getInstance(conf, logger).importData();
+        long now = System.nanoTime();
+        long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(now - this.throughputTickNanos);
+        this.throughputTickNanos = now;
 
-            }
-        }, 0, conf.getInfluxdbFlushInterval());
+        for (Point point : this.throughputCounter.getPoints(System.currentTimeMillis(), elapsedInMs, JMeterContextService.getNumberOfThreads())) {
+            this.influxDatabaseClient.collectData(point);
+        }
+    }
+
+    /**
+     * Writes the summary of the whole test per sampler label.
+     */
+    private void addTestSummaryMetrics() {
+
+        for (Point point : this.testSummaryCollector.getPoints(System.currentTimeMillis())) {
+            this.influxDatabaseClient.collectData(point);
+        }
     }
 }
\ No newline at end of file
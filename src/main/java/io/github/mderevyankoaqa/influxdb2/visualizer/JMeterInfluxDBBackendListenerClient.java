@@ -0,0 +1,42 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.loader.BulkLoader;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The entry point of the plugin jar: loads the files captured by the file transport to InfluxDB after the test, see {@link BulkLoader}.
+ * Takes the loader and the InfluxDB settings of the listener as {@code key=value} arguments, the ones not set are the listener defaults.
+ *
+ * @author Michael Derevyanko
+ */
+public class JMeterInfluxDBBackendListenerClient {
+
+    private JMeterInfluxDBBackendListenerClient() {
+    }
+
+    /**
+     * Runs the bulk loader, exits with the code 1 if the load has failed.
+     *
+     * @param args the {@code key=value} settings.
+     * @throws IOException when the captured files can not be read.
+     */
+    public static void main(String[] args) throws IOException {
+
+        Map<String, String> parameters = new HashMap<>(new InfluxDatabaseBackendListenerClient().getDefaultParameters().getArgumentsAsMap());
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expecting key=value as the loader argument, but you set " + arg);
+            }
+            parameters.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        if (!new BulkLoader(new BackendListenerContext(parameters)).load()) {
+            System.exit(1);
+        }
+    }
+}
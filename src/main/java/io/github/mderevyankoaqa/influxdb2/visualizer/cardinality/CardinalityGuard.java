@@ -0,0 +1,95 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.cardinality;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestMeasurement;
+import org.slf4j.Logger;
+
+/**
+ * The guard of the series cardinality: keeps the requestName, errorMessage and errorResponseBody tags within the budgets,
+ * and tells whether the error texts are written as the fields, so they do not create the series at all.
+ * @author Michael Derevyanko
+ */
+public class CardinalityGuard {
+
+    private final TagCardinalityGuard requestName;
+    private final TagCardinalityGuard errorMessage;
+    private final TagCardinalityGuard errorResponseBody;
+    private final boolean errorTextAsFields;
+
+    /**
+     * Creates the new instance of the {@link CardinalityGuard}.
+     * @param rules the {@link NormalizationRules} applied to all the guarded tags.
+     * @param maxTagValues the max amount of the distinct values per tag, 0 means no limit.
+     * @param errorTextAsFields set to true to write the error texts as the fields; otherwise false.
+     */
+    public CardinalityGuard(NormalizationRules rules, int maxTagValues, boolean errorTextAsFields) {
+
+        this.requestName = new TagCardinalityGuard(RequestMeasurement.Tags.REQUEST_NAME, maxTagValues, rules);
+        this.errorTextAsFields = errorTextAsFields;
+
+        // The fields do not create the series, so the error texts are not limited then.
+        int errorTextBudget = errorTextAsFields ? 0 : maxTagValues;
+        this.errorMessage = new TagCardinalityGuard(RequestMeasurement.Tags.ERROR_MSG, errorTextBudget, rules);
+        this.errorResponseBody = new TagCardinalityGuard(RequestMeasurement.Tags.ERROR_RESPONSE_BODY, errorTextBudget, rules);
+    }
+
+    /**
+     * Creates the guard without the rules and the limits, the values are written as they are.
+     * @return the {@link CardinalityGuard}.
+     */
+    public static CardinalityGuard unlimited() {
+        return new CardinalityGuard(NormalizationRules.parse(""), 0, false);
+    }
+
+    /**
+     * Gets the request name to be written.
+     * @param value the sampler label.
+     * @return the normalized value, or the overflow value if the budget is exhausted.
+     */
+    public String getRequestName(String value) {
+        return this.requestName.apply(value);
+    }
+
+    /**
+     * Gets the error message to be written.
+     * @param value the error message.
+     * @return the normalized value, or the overflow value if the budget is exhausted.
+     */
+    public String getErrorMessage(String value) {
+        return this.errorMessage.apply(value);
+    }
+
+    /**
+     * Gets the error response body to be written.
+     * @param value the error response body.
+     * @return the normalized value, or the overflow value if the budget is exhausted.
+     */
+    public String getErrorResponseBody(String value) {
+        return this.errorResponseBody.apply(value);
+    }
+
+    /**
+     * Checks whether the error texts are written as the fields.
+     * @return true to write the error texts as the fields; otherwise false to write them as the tags.
+     */
+    public boolean isErrorTextAsFields() {
+        return this.errorTextAsFields;
+    }
+
+    /**
+     * Logs the amount of the distinct values of the guarded tags.
+     * @param logger the {@link Logger}.
+     */
+    public void logCardinality(Logger logger) {
+
+        for (TagCardinalityGuard guard : new TagCardinalityGuard[]{this.requestName, this.errorMessage, this.errorResponseBody}) {
+            if (!guard.isGuarded()) {
+                logger.info("Cardinality of the " + guard.getTagName() + " --> not counted, no rules, admitted unlimited");
+                continue;
+            }
+
+            logger.info("Cardinality of the " + guard.getTagName() + " --> ~" + guard.getDistinctValuesEstimate()
+                    + " distinct values, admitted " + (guard.isLimited() ? String.valueOf(guard.getAdmittedValues()) : "unlimited")
+                    + ", replaced by " + TagCardinalityGuard.OVERFLOW_VALUE + " " + guard.getOverflowedValues() + " times");
+        }
+    }
+}
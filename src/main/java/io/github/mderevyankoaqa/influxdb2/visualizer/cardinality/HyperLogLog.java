@@ -0,0 +1,95 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.cardinality;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The HyperLogLog sketch estimating the amount of the distinct values in the fixed memory.
+ * 4096 registers keep the estimate within ~2% accuracy; the values can be offered from any thread.
+ * @author Michael Derevyanko
+ */
+public class HyperLogLog {
+
+    /**
+     * The amount of the hash bits addressing the register.
+     */
+    private static final int PRECISION = 12;
+
+    private static final int REGISTERS_AMOUNT = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS_AMOUNT);
+
+    private final AtomicIntegerArray registers;
+
+    /**
+     * Creates the new instance of the {@link HyperLogLog}.
+     */
+    public HyperLogLog() {
+        this.registers = new AtomicIntegerArray(REGISTERS_AMOUNT);
+    }
+
+    /**
+     * Offers the value to the sketch.
+     * @param value the value.
+     */
+    public void offer(String value) {
+
+        long hash = getHash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // The rank is the position of the first set bit in the rest of the hash, the marker bit limits the rank.
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+
+        int current;
+        while ((current = this.registers.get(index)) < rank) {
+            if (this.registers.compareAndSet(index, current, rank)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the estimated amount of the distinct values offered.
+     * @return the estimated amount.
+     */
+    public long getEstimate() {
+
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (int i = 0; i < REGISTERS_AMOUNT; i++) {
+            int register = this.registers.get(i);
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS_AMOUNT * REGISTERS_AMOUNT / sum;
+
+        // The linear counting is more accurate for the small amounts.
+        if (estimate <= 2.5 * REGISTERS_AMOUNT && emptyRegisters != 0) {
+            estimate = REGISTERS_AMOUNT * Math.log((double) REGISTERS_AMOUNT / emptyRegisters);
+        }
+
+        return Math.round(estimate);
+    }
+
+    /**
+     * Gets the 64-bit hash of the value: FNV-1a mixed by the MurmurHash3 finalizer, so all the bits are spread.
+     * @param value the value.
+     * @return the hash.
+     */
+    private static long getHash(String value) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
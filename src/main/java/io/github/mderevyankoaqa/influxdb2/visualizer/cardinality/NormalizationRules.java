@@ -0,0 +1,84 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.cardinality;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The rules normalizing the tag values before writing, e.g. collapsing the ids in the labels: {@code /users/\d+=>/users/{id}}.
+ * The rules are set as {@code regex=>replacement} separated by ';', compiled once and applied in the order they are set;
+ * the replacement can refer to the regex groups as {@code $1}.
+ * @author Michael Derevyanko
+ */
+public final class NormalizationRules {
+
+    private static final String RULES_SEPARATOR = ";";
+    private static final String REPLACEMENT_SEPARATOR = "=>";
+
+    private final List<Pattern> patterns;
+    private final List<String> replacements;
+
+    /**
+     * Creates the new instance of the {@link NormalizationRules}.
+     * @param patterns the compiled regexes.
+     * @param replacements the replacements of the regexes.
+     */
+    private NormalizationRules(List<Pattern> patterns, List<String> replacements) {
+        this.patterns = patterns;
+        this.replacements = replacements;
+    }
+
+    /**
+     * Parses the rules set in the settings.
+     * @param rules the rules, empty string means no rules.
+     * @return the {@link NormalizationRules}.
+     * @throws IllegalArgumentException when the rule has no replacement or the regex is not valid.
+     */
+    public static NormalizationRules parse(String rules) throws IllegalArgumentException {
+
+        List<Pattern> patterns = new ArrayList<>();
+        List<String> replacements = new ArrayList<>();
+
+        if (rules != null) {
+            for (String rule : rules.split(RULES_SEPARATOR)) {
+                if (rule.trim().isEmpty()) {
+                    continue;
+                }
+
+                int separatorIndex = rule.lastIndexOf(REPLACEMENT_SEPARATOR);
+                if (separatorIndex <= 0) {
+                    throw new IllegalArgumentException("Expecting 'regex=>replacement' as normalization rule, but you set " + rule);
+                }
+
+                patterns.add(Pattern.compile(rule.substring(0, separatorIndex).trim()));
+                replacements.add(rule.substring(separatorIndex + REPLACEMENT_SEPARATOR.length()).trim());
+            }
+        }
+
+        return new NormalizationRules(Collections.unmodifiableList(patterns), Collections.unmodifiableList(replacements));
+    }
+
+    /**
+     * Checks whether there are no rules.
+     * @return true if there are no rules; otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.patterns.isEmpty();
+    }
+
+    /**
+     * Applies the rules to the value.
+     * @param value the value.
+     * @return the normalized value.
+     */
+    public String apply(String value) {
+
+        String result = value;
+        for (int i = 0; i < this.patterns.size(); i++) {
+            result = this.patterns.get(i).matcher(result).replaceAll(this.replacements.get(i));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.cardinality;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The guard of the distinct values of the single tag. Normalizes the value by the rules, admits the first distinct values within the budget,
+ * the rest are replaced by the {@link #OVERFLOW_VALUE}, so the amount of the series stays bounded.
+ * The amount of all the distinct values seen is estimated by the {@link HyperLogLog} sketch; the decisions are cached per raw value.
+ * The guard without the rules and the budget writes the values as they are, it neither caches nor counts them.
+ * @author Michael Derevyanko
+ */
+public class TagCardinalityGuard {
+
+    /**
+     * The value written instead of the values over the budget.
+     */
+    public static final String OVERFLOW_VALUE = "__other__";
+
+    /**
+     * The max amount of the cached decisions, protects from the unbounded growth with the dynamic values.
+     */
+    private static final int MAX_CACHED_VALUES = 10000;
+
+    private final String tagName;
+    private final int budget;
+    private final NormalizationRules rules;
+    private final boolean guarded;
+    private final Set<String> admittedValues;
+    private final Map<String, String> decisions;
+    private final HyperLogLog distinctValues;
+    private final LongAdder overflowedValues;
+
+    /**
+     * Creates the new instance of the {@link TagCardinalityGuard}.
+     * @param tagName the tag name.
+     * @param budget the max amount of the distinct values, 0 means no limit.
+     * @param rules the {@link NormalizationRules}.
+     */
+    public TagCardinalityGuard(String tagName, int budget, NormalizationRules rules) {
+
+        this.tagName = tagName;
+        this.budget = budget;
+        this.rules = rules;
+        this.guarded = budget > 0 || !rules.isEmpty();
+        this.admittedValues = ConcurrentHashMap.newKeySet();
+        this.decisions = this.guarded ? new ConcurrentHashMap<>() : null;
+        this.distinctValues = this.guarded ? new HyperLogLog() : null;
+        this.overflowedValues = new LongAdder();
+    }
+
+    /**
+     * Gets the value to be written.
+     * @param value the tag value.
+     * @return the normalized value, or the {@link #OVERFLOW_VALUE} if the budget is exhausted.
+     */
+    public String apply(String value) {
+
+        // Nothing to decide: the values are not kept, so the dynamic error texts do not fill the cache and the sketch.
+        if (value == null || !this.guarded) {
+            return value;
+        }
+
+        String decision = this.decisions.get(value);
+        if (decision == null) {
+            if (this.decisions.size() < MAX_CACHED_VALUES) {
+                decision = this.decide(value);
+                this.decisions.put(value, decision);
+            } else if (this.admittedValues.contains(value)) {
+                // The cache is full: the value admitted as it is needs neither the rules nor the sketch, it is counted already.
+                decision = value;
+            } else {
+                decision = this.decide(value);
+            }
+        }
+
+        // The constant is compared by the reference, the normalized value can be equal to it.
+        if (decision == OVERFLOW_VALUE) {
+            this.overflowedValues.increment();
+        }
+
+        return decision;
+    }
+
+    /**
+     * Gets the tag name.
+     * @return the tag name.
+     */
+    public String getTagName() {
+        return this.tagName;
+    }
+
+    /**
+     * Checks whether the values are normalized or limited, only such values are counted.
+     * @return true if there are the rules or the budget; otherwise false.
+     */
+    public boolean isGuarded() {
+        return this.guarded;
+    }
+
+    /**
+     * Checks whether the amount of the distinct values is limited.
+     * @return true if there is the budget; otherwise false.
+     */
+    public boolean isLimited() {
+        return this.budget > 0;
+    }
+
+    /**
+     * Gets the estimated amount of the distinct normalized values seen.
+     * @return the estimated amount, 0 if the guard is not {@link #isGuarded()}.
+     */
+    public long getDistinctValuesEstimate() {
+        return this.guarded ? this.distinctValues.getEstimate() : 0;
+    }
+
+    /**
+     * Gets the amount of the admitted distinct values.
+     * @return the amount of the admitted values.
+     */
+    public int getAdmittedValues() {
+        return this.admittedValues.size();
+    }
+
+    /**
+     * Gets the amount of the values replaced by the {@link #OVERFLOW_VALUE}.
+     * @return the amount of the replaced values.
+     */
+    public long getOverflowedValues() {
+        return this.overflowedValues.sum();
+    }
+
+    /**
+     * Normalizes the value and checks the budget.
+     * @param value the tag value.
+     * @return the normalized value, or the {@link #OVERFLOW_VALUE} if the budget is exhausted.
+     */
+    private String decide(String value) {
+
+        String normalized = this.rules.apply(value);
+        this.distinctValues.offer(normalized);
+
+        if (this.budget <= 0 || this.admittedValues.contains(normalized)) {
+            return normalized;
+        }
+
+        // The admitted values are never removed, so the exhausted budget is checked without the lock.
+        if (this.admittedValues.size() >= this.budget) {
+            return OVERFLOW_VALUE;
+        }
+
+        synchronized (this.admittedValues) {
+            if (this.admittedValues.contains(normalized) || this.admittedValues.size() < this.budget) {
+                this.admittedValues.add(normalized);
+                return normalized;
+            }
+        }
+
+        return OVERFLOW_VALUE;
+    }
+}
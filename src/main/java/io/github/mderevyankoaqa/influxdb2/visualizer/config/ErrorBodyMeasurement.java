@@ -0,0 +1,53 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+/**
+ * Constants (Tag, Field, Measurement) names for the measurement of the distinct failure bodies,
+ * the {@link RequestMeasurement} points carry the hash of the body when the deduplication is enabled.
+ * @author Michael Derevyanko
+ */
+public interface ErrorBodyMeasurement {
+
+	/**
+	 * Measurement name.
+	 */
+	String MEASUREMENT_NAME = "errorBodies";
+
+	/**
+	 * Tags.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Tags {
+		/**
+		 * The hash of the body, the same as the errorResponseBody tag of the request.
+		 */
+		String HASH = "hash";
+
+		/**
+		 * Node name field.
+		 */
+		String NODE_NAME = "nodeName";
+
+		/**
+		 * Run Id field.
+		 */
+		String RUN_ID = "runId";
+
+		/**
+		 * Test name field.
+		 */
+		String TEST_NAME = "testName";
+	}
+
+	/**
+	 * Fields.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Fields {
+		/**
+		 * The body of the failed response.
+		 */
+		String BODY = "body";
+	}
+}
@@ -2,8 +2,11 @@ package io.github.mderevyankoaqa.influxdb2.visualizer.config;
 
 
 import com.influxdb.utils.Arguments;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseUtility;
 import org.apache.jmeter.visualizers.backend.BackendListenerContext;
 
+import java.util.zip.Deflater;
+
 /**
  * Configuration for influxDB.
  *
@@ -52,6 +55,101 @@ public class InfluxDBConfig {
      */
     public static final int DEFAULT_RESPONSE_BODY_LENGTH = 2000;
 
+    /**
+     * Default max amount of the batches written at the same time.
+     */
+    public static final int DEFAULT_INFLUX_DB_MAX_IN_FLIGHT_BATCHES = 1;
+
+    /**
+     * Default spool directory, empty value disables the spool.
+     */
+    public static final String DEFAULT_INFLUX_DB_SPOOL_DIRECTORY = "";
+
+    /**
+     * Default max size of the spool in megabytes.
+     */
+    public static final int DEFAULT_INFLUX_DB_SPOOL_MAX_SIZE = 1024;
+
+    /**
+     * Default adaptive batching setting, the batch size and the flush interval are fixed.
+     */
+    public static final boolean DEFAULT_INFLUX_DB_ADAPTIVE_BATCHING = false;
+
+    /**
+     * Default min batch size of the adaptive batching.
+     */
+    public static final int DEFAULT_INFLUX_DB_MIN_BATCH_SIZE = 100;
+
+    /**
+     * Default target write latency of the adaptive batching in milliseconds.
+     */
+    public static final int DEFAULT_INFLUX_DB_TARGET_WRITE_LATENCY = 1000;
+
+    /**
+     * Default max payload size of the batch in kilobytes.
+     */
+    public static final int DEFAULT_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE = 10240;
+
+    /**
+     * Default relay address, the data is written to InfluxDB directly.
+     */
+    public static final String DEFAULT_INFLUX_DB_RELAY_ADDRESS = "";
+
+    /**
+     * Default transport, the InfluxDB HTTP API.
+     */
+    public static final String DEFAULT_INFLUX_DB_TRANSPORT = "http";
+
+    /**
+     * Default address of the UDP or TCP listener.
+     */
+    public static final String DEFAULT_INFLUX_DB_SOCKET_ADDRESS = "localhost:8094";
+
+    /**
+     * Default max payload size of the datagram in bytes, fits the Ethernet MTU.
+     */
+    public static final int DEFAULT_INFLUX_DB_UDP_PAYLOAD_SIZE = 1400;
+
+    /**
+     * Default gzip level of the write requests.
+     */
+    public static final int DEFAULT_INFLUX_DB_COMPRESSION_LEVEL = 6;
+
+    /**
+     * Default max size of the points buffer in megabytes.
+     */
+    public static final int DEFAULT_INFLUX_DB_BUFFER_MAX_SIZE = 16;
+
+    /**
+     * Default overflow policy of the points buffer, the new points are shed.
+     */
+    public static final String DEFAULT_INFLUX_DB_OVERFLOW_POLICY = "drop_newest";
+
+    /**
+     * Default time to wait for the free space in the buffer with the block overflow policy, in milliseconds.
+     */
+    public static final int DEFAULT_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT = 1000;
+
+    /**
+     * Default time to write the rest of the points when the test ends, in milliseconds.
+     */
+    public static final int DEFAULT_INFLUX_DB_CLOSE_TIMEOUT = 30000;
+
+    /**
+     * Default amount of the batches written at the same time by the final flush.
+     */
+    public static final int DEFAULT_INFLUX_DB_CLOSE_PARALLELISM = 4;
+
+    /**
+     * Default directory of the capture files of the file transport.
+     */
+    public static final String DEFAULT_INFLUX_DB_CAPTURE_DIRECTORY = "";
+
+    /**
+     * Default max size of the capture file in megabytes.
+     */
+    public static final int DEFAULT_INFLUX_DB_CAPTURE_FILE_SIZE = 64;
+
     /**
      * Config key for influxdb url.
      */
@@ -92,6 +190,101 @@ public class InfluxDBConfig {
      */
     public static final String KEY_RESPONSE_BODY_LENGTH = "responseBodyLength";
 
+    /**
+     * Config key for the max amount of the batches written at the same time.
+     */
+    public static final String KEY_INFLUX_DB_MAX_IN_FLIGHT_BATCHES = "influxDBMaxInFlightBatches";
+
+    /**
+     * Config key for the spool directory.
+     */
+    public static final String KEY_INFLUX_DB_SPOOL_DIRECTORY = "influxDBSpoolDirectory";
+
+    /**
+     * Config key for the max size of the spool.
+     */
+    public static final String KEY_INFLUX_DB_SPOOL_MAX_SIZE = "influxDBSpoolMaxSize";
+
+    /**
+     * Config key to enable the adaptive batch size and flush interval.
+     */
+    public static final String KEY_INFLUX_DB_ADAPTIVE_BATCHING = "influxDBAdaptiveBatching";
+
+    /**
+     * Config key for the min batch size of the adaptive batching.
+     */
+    public static final String KEY_INFLUX_DB_MIN_BATCH_SIZE = "influxDBMinBatchSize";
+
+    /**
+     * Config key for the target write latency of the adaptive batching.
+     */
+    public static final String KEY_INFLUX_DB_TARGET_WRITE_LATENCY = "influxDBTargetWriteLatency";
+
+    /**
+     * Config key for the max payload size of the batch.
+     */
+    public static final String KEY_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE = "influxDBMaxBatchPayloadSize";
+
+    /**
+     * Config key for the relay address.
+     */
+    public static final String KEY_INFLUX_DB_RELAY_ADDRESS = "influxDBRelayAddress";
+
+    /**
+     * Config key for the transport.
+     */
+    public static final String KEY_INFLUX_DB_TRANSPORT = "influxDBTransport";
+
+    /**
+     * Config key for the address of the UDP or TCP listener.
+     */
+    public static final String KEY_INFLUX_DB_SOCKET_ADDRESS = "influxDBSocketAddress";
+
+    /**
+     * Config key for the max payload size of the datagram.
+     */
+    public static final String KEY_INFLUX_DB_UDP_PAYLOAD_SIZE = "influxDBUdpPayloadSize";
+
+    /**
+     * Config key for the gzip level of the write requests.
+     */
+    public static final String KEY_INFLUX_DB_COMPRESSION_LEVEL = "influxDBCompressionLevel";
+
+    /**
+     * Config key for the max size of the points buffer.
+     */
+    public static final String KEY_INFLUX_DB_BUFFER_MAX_SIZE = "influxDBBufferMaxSize";
+
+    /**
+     * Config key for the overflow policy of the points buffer.
+     */
+    public static final String KEY_INFLUX_DB_OVERFLOW_POLICY = "influxDBOverflowPolicy";
+
+    /**
+     * Config key for the time to wait for the free space in the buffer.
+     */
+    public static final String KEY_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT = "influxDBOverflowBlockTimeout";
+
+    /**
+     * Config key for the time to write the rest of the points when the test ends.
+     */
+    public static final String KEY_INFLUX_DB_CLOSE_TIMEOUT = "influxDBCloseTimeout";
+
+    /**
+     * Config key for the amount of the batches written at the same time by the final flush.
+     */
+    public static final String KEY_INFLUX_DB_CLOSE_PARALLELISM = "influxDBCloseParallelism";
+
+    /**
+     * Config key for the directory of the capture files.
+     */
+    public static final String KEY_INFLUX_DB_CAPTURE_DIRECTORY = "influxDBCaptureDirectory";
+
+    /**
+     * Config key for the max size of the capture file.
+     */
+    public static final String KEY_INFLUX_DB_CAPTURE_FILE_SIZE = "influxDBCaptureFileSize";
+
     /**
      * InfluxDB URL.
      */
@@ -132,6 +325,101 @@ public class InfluxDBConfig {
      */
     private int responseBodyLength;
 
+    /**
+     * The max amount of the batches written at the same time.
+     */
+    private int influxdbMaxInFlightBatches;
+
+    /**
+     * The directory of the spool keeping the batches not delivered to InfluxDB.
+     */
+    private String influxdbSpoolDirectory;
+
+    /**
+     * The max size of the spool in megabytes.
+     */
+    private int influxdbSpoolMaxSize;
+
+    /**
+     * Indicates whether the batch size and the flush interval are adapted to the write latency.
+     */
+    private boolean influxdbAdaptiveBatching;
+
+    /**
+     * The min batch size of the adaptive batching.
+     */
+    private int influxdbMinBatchSize;
+
+    /**
+     * The target write latency of the adaptive batching in milliseconds.
+     */
+    private int influxdbTargetWriteLatency;
+
+    /**
+     * The max payload size of the batch in kilobytes.
+     */
+    private int influxdbMaxBatchPayloadSize;
+
+    /**
+     * The address of the relay as host:port, empty to write to InfluxDB directly.
+     */
+    private String influxdbRelayAddress;
+
+    /**
+     * The transport the records are written with.
+     */
+    private TransportType influxdbTransport;
+
+    /**
+     * The address of the UDP or TCP listener as host:port.
+     */
+    private String influxdbSocketAddress;
+
+    /**
+     * The max payload size of the datagram in bytes.
+     */
+    private int influxdbUdpPayloadSize;
+
+    /**
+     * The gzip level of the write requests, 0 disables the compression.
+     */
+    private int influxdbCompressionLevel;
+
+    /**
+     * Max size of the points buffer in megabytes.
+     */
+    private int influxdbBufferMaxSize;
+
+    /**
+     * Overflow policy of the points buffer.
+     */
+    private OverflowPolicy influxdbOverflowPolicy;
+
+    /**
+     * Time to wait for the free space in the buffer in milliseconds.
+     */
+    private int influxdbOverflowBlockTimeout;
+
+    /**
+     * Time to write the rest of the points when the test ends, in milliseconds.
+     */
+    private int influxdbCloseTimeout;
+
+    /**
+     * Amount of the batches written at the same time by the final flush.
+     */
+    private int influxdbCloseParallelism;
+
+    /**
+     * Directory of the capture files.
+     */
+    private String influxdbCaptureDirectory;
+
+    /**
+     * Max size of the capture file in megabytes.
+     */
+    private int influxdbCaptureFileSize;
+
     /**
      * Creates the new instance of {@link InfluxDBConfig}
      *
@@ -171,6 +459,77 @@ public class InfluxDBConfig {
         int responseBodyLength= context.getIntParameter(KEY_RESPONSE_BODY_LENGTH);
         Arguments.checkNotNegativeNumber(influxdbFlushInterval, KEY_RESPONSE_BODY_LENGTH);
         this.setResponseBodyLength(responseBodyLength);
+
+        int influxdbMaxInFlightBatches = context.getIntParameter(KEY_INFLUX_DB_MAX_IN_FLIGHT_BATCHES, DEFAULT_INFLUX_DB_MAX_IN_FLIGHT_BATCHES);
+        Arguments.checkPositiveNumber(influxdbMaxInFlightBatches, KEY_INFLUX_DB_MAX_IN_FLIGHT_BATCHES);
+        this.setInfluxdbMaxInFlightBatches(influxdbMaxInFlightBatches);
+
+        this.setInfluxdbSpoolDirectory(context.getParameter(KEY_INFLUX_DB_SPOOL_DIRECTORY, DEFAULT_INFLUX_DB_SPOOL_DIRECTORY).trim());
+
+        int influxdbSpoolMaxSize = context.getIntParameter(KEY_INFLUX_DB_SPOOL_MAX_SIZE, DEFAULT_INFLUX_DB_SPOOL_MAX_SIZE);
+        Arguments.checkNotNegativeNumber(influxdbSpoolMaxSize, KEY_INFLUX_DB_SPOOL_MAX_SIZE);
+        this.setInfluxdbSpoolMaxSize(influxdbSpoolMaxSize);
+
+        this.setInfluxdbAdaptiveBatching(context.getBooleanParameter(KEY_INFLUX_DB_ADAPTIVE_BATCHING, DEFAULT_INFLUX_DB_ADAPTIVE_BATCHING));
+
+        int influxdbMinBatchSize = context.getIntParameter(KEY_INFLUX_DB_MIN_BATCH_SIZE, DEFAULT_INFLUX_DB_MIN_BATCH_SIZE);
+        Arguments.checkPositiveNumber(influxdbMinBatchSize, KEY_INFLUX_DB_MIN_BATCH_SIZE);
+        this.setInfluxdbMinBatchSize(influxdbMinBatchSize);
+
+        int influxdbTargetWriteLatency = context.getIntParameter(KEY_INFLUX_DB_TARGET_WRITE_LATENCY, DEFAULT_INFLUX_DB_TARGET_WRITE_LATENCY);
+        Arguments.checkPositiveNumber(influxdbTargetWriteLatency, KEY_INFLUX_DB_TARGET_WRITE_LATENCY);
+        this.setInfluxdbTargetWriteLatency(influxdbTargetWriteLatency);
+
+        int influxdbMaxBatchPayloadSize = context.getIntParameter(KEY_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE, DEFAULT_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE);
+        Arguments.checkPositiveNumber(influxdbMaxBatchPayloadSize, KEY_INFLUX_DB_MAX_BATCH_PAYLOAD_SIZE);
+        this.setInfluxdbMaxBatchPayloadSize(influxdbMaxBatchPayloadSize);
+
+        this.setInfluxdbRelayAddress(context.getParameter(KEY_INFLUX_DB_RELAY_ADDRESS, DEFAULT_INFLUX_DB_RELAY_ADDRESS).trim());
+
+        this.setInfluxdbTransport(TransportType.parse(context.getParameter(KEY_INFLUX_DB_TRANSPORT, DEFAULT_INFLUX_DB_TRANSPORT)));
+
+        this.setInfluxdbSocketAddress(context.getParameter(KEY_INFLUX_DB_SOCKET_ADDRESS, DEFAULT_INFLUX_DB_SOCKET_ADDRESS).trim());
+        if (this.getInfluxdbTransport() != TransportType.HTTP) {
+            InfluxDatabaseUtility.parseSocketAddress(this.getInfluxdbSocketAddress(), KEY_INFLUX_DB_SOCKET_ADDRESS);
+        }
+
+        int influxdbUdpPayloadSize = context.getIntParameter(KEY_INFLUX_DB_UDP_PAYLOAD_SIZE, DEFAULT_INFLUX_DB_UDP_PAYLOAD_SIZE);
+        Arguments.checkPositiveNumber(influxdbUdpPayloadSize, KEY_INFLUX_DB_UDP_PAYLOAD_SIZE);
+        this.setInfluxdbUdpPayloadSize(influxdbUdpPayloadSize);
+
+        int influxdbCompressionLevel = context.getIntParameter(KEY_INFLUX_DB_COMPRESSION_LEVEL, DEFAULT_INFLUX_DB_COMPRESSION_LEVEL);
+        Arguments.checkNotNegativeNumber(influxdbCompressionLevel, KEY_INFLUX_DB_COMPRESSION_LEVEL);
+        if (influxdbCompressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Expecting the level from 0 to 9 for " + KEY_INFLUX_DB_COMPRESSION_LEVEL + ", but you set " + influxdbCompressionLevel);
+        }
+        this.setInfluxdbCompressionLevel(influxdbCompressionLevel);
+
+        int influxdbBufferMaxSize = context.getIntParameter(KEY_INFLUX_DB_BUFFER_MAX_SIZE, DEFAULT_INFLUX_DB_BUFFER_MAX_SIZE);
+        Arguments.checkPositiveNumber(influxdbBufferMaxSize, KEY_INFLUX_DB_BUFFER_MAX_SIZE);
+        this.setInfluxdbBufferMaxSize(influxdbBufferMaxSize);
+
+        this.setInfluxdbOverflowPolicy(OverflowPolicy.parse(context.getParameter(KEY_INFLUX_DB_OVERFLOW_POLICY, DEFAULT_INFLUX_DB_OVERFLOW_POLICY)));
+
+        int influxdbOverflowBlockTimeout = context.getIntParameter(KEY_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT, DEFAULT_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT);
+        Arguments.checkNotNegativeNumber(influxdbOverflowBlockTimeout, KEY_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT);
+        this.setInfluxdbOverflowBlockTimeout(influxdbOverflowBlockTimeout);
+
+        int influxdbCloseTimeout = context.getIntParameter(KEY_INFLUX_DB_CLOSE_TIMEOUT, DEFAULT_INFLUX_DB_CLOSE_TIMEOUT);
+        Arguments.checkNotNegativeNumber(influxdbCloseTimeout, KEY_INFLUX_DB_CLOSE_TIMEOUT);
+        this.setInfluxdbCloseTimeout(influxdbCloseTimeout);
+
+        int influxdbCloseParallelism = context.getIntParameter(KEY_INFLUX_DB_CLOSE_PARALLELISM, DEFAULT_INFLUX_DB_CLOSE_PARALLELISM);
+        Arguments.checkPositiveNumber(influxdbCloseParallelism, KEY_INFLUX_DB_CLOSE_PARALLELISM);
+        this.setInfluxdbCloseParallelism(influxdbCloseParallelism);
+
+        this.setInfluxdbCaptureDirectory(context.getParameter(KEY_INFLUX_DB_CAPTURE_DIRECTORY, DEFAULT_INFLUX_DB_CAPTURE_DIRECTORY).trim());
+        if (this.getInfluxdbTransport() == TransportType.FILE && this.getInfluxdbCaptureDirectory().isEmpty()) {
+            throw new IllegalArgumentException(KEY_INFLUX_DB_CAPTURE_DIRECTORY + " must be set for the file transport.");
+        }
+
+        int influxdbCaptureFileSize = context.getIntParameter(KEY_INFLUX_DB_CAPTURE_FILE_SIZE, DEFAULT_INFLUX_DB_CAPTURE_FILE_SIZE);
+        Arguments.checkPositiveNumber(influxdbCaptureFileSize, KEY_INFLUX_DB_CAPTURE_FILE_SIZE);
+        this.setInfluxdbCaptureFileSize(influxdbCaptureFileSize);
     }
 
     /**
@@ -316,4 +675,346 @@ public class InfluxDBConfig {
     public void setResponseBodyLength(int responseBodyLength) {
         this.responseBodyLength = responseBodyLength;
     }
+
+    /**
+     * Gets the max amount of the batches written at the same time.
+     *
+     * @return the max amount of the batches in flight.
+     */
+    public int getInfluxdbMaxInFlightBatches() {
+        return influxdbMaxInFlightBatches;
+    }
+
+    /**
+     * Sets the max amount of the batches written at the same time.
+     *
+     * @param influxdbMaxInFlightBatches the max amount of the batches in flight.
+     */
+    public void setInfluxdbMaxInFlightBatches(int influxdbMaxInFlightBatches) {
+        this.influxdbMaxInFlightBatches = influxdbMaxInFlightBatches;
+    }
+
+    /**
+     * Gets the spool directory.
+     *
+     * @return the spool directory; empty string if the spool is disabled.
+     */
+    public String getInfluxdbSpoolDirectory() {
+        return influxdbSpoolDirectory;
+    }
+
+    /**
+     * Sets the spool directory.
+     *
+     * @param influxdbSpoolDirectory the spool directory, empty string disables the spool.
+     */
+    public void setInfluxdbSpoolDirectory(String influxdbSpoolDirectory) {
+        this.influxdbSpoolDirectory = influxdbSpoolDirectory;
+    }
+
+    /**
+     * Gets the max size of the spool.
+     *
+     * @return the max size of the spool in megabytes.
+     */
+    public int getInfluxdbSpoolMaxSize() {
+        return influxdbSpoolMaxSize;
+    }
+
+    /**
+     * Sets the max size of the spool.
+     *
+     * @param influxdbSpoolMaxSize the max size of the spool in megabytes.
+     */
+    public void setInfluxdbSpoolMaxSize(int influxdbSpoolMaxSize) {
+        this.influxdbSpoolMaxSize = influxdbSpoolMaxSize;
+    }
+
+    /**
+     * Checks whether the batch size and the flush interval are adapted to the write latency.
+     *
+     * @return true if the adaptive batching is enabled; otherwise false.
+     */
+    public boolean isInfluxdbAdaptiveBatching() {
+        return influxdbAdaptiveBatching;
+    }
+
+    /**
+     * Sets the adaptive batching.
+     *
+     * @param influxdbAdaptiveBatching set to true to adapt the batch size and the flush interval; otherwise false.
+     */
+    public void setInfluxdbAdaptiveBatching(boolean influxdbAdaptiveBatching) {
+        this.influxdbAdaptiveBatching = influxdbAdaptiveBatching;
+    }
+
+    /**
+     * Gets the min batch size of the adaptive batching.
+     *
+     * @return the min batch size.
+     */
+    public int getInfluxdbMinBatchSize() {
+        return influxdbMinBatchSize;
+    }
+
+    /**
+     * Sets the min batch size of the adaptive batching.
+     *
+     * @param influxdbMinBatchSize the min batch size.
+     */
+    public void setInfluxdbMinBatchSize(int influxdbMinBatchSize) {
+        this.influxdbMinBatchSize = influxdbMinBatchSize;
+    }
+
+    /**
+     * Gets the target write latency of the adaptive batching.
+     *
+     * @return the target write latency in milliseconds.
+     */
+    public int getInfluxdbTargetWriteLatency() {
+        return influxdbTargetWriteLatency;
+    }
+
+    /**
+     * Sets the target write latency of the adaptive batching.
+     *
+     * @param influxdbTargetWriteLatency the target write latency in milliseconds.
+     */
+    public void setInfluxdbTargetWriteLatency(int influxdbTargetWriteLatency) {
+        this.influxdbTargetWriteLatency = influxdbTargetWriteLatency;
+    }
+
+    /**
+     * Gets the max payload size of the batch, the encoded line protocol.
+     *
+     * @return the max payload size in kilobytes.
+     */
+    public int getInfluxdbMaxBatchPayloadSize() {
+        return influxdbMaxBatchPayloadSize;
+    }
+
+    /**
+     * Sets the max payload size of the batch.
+     *
+     * @param influxdbMaxBatchPayloadSize the max payload size in kilobytes.
+     */
+    public void setInfluxdbMaxBatchPayloadSize(int influxdbMaxBatchPayloadSize) {
+        this.influxdbMaxBatchPayloadSize = influxdbMaxBatchPayloadSize;
+    }
+
+    /**
+     * Gets the address of the relay.
+     *
+     * @return the address of the relay as host:port, empty to write to InfluxDB directly.
+     */
+    public String getInfluxdbRelayAddress() {
+        return influxdbRelayAddress;
+    }
+
+    /**
+     * Sets the address of the relay.
+     *
+     * @param influxdbRelayAddress the address of the relay as host:port.
+     */
+    public void setInfluxdbRelayAddress(String influxdbRelayAddress) {
+        this.influxdbRelayAddress = influxdbRelayAddress;
+    }
+
+    /**
+     * Gets the transport the records are written with.
+     *
+     * @return the {@link TransportType}.
+     */
+    public TransportType getInfluxdbTransport() {
+        return influxdbTransport;
+    }
+
+    /**
+     * Sets the transport the records are written with.
+     *
+     * @param influxdbTransport the {@link TransportType}.
+     */
+    public void setInfluxdbTransport(TransportType influxdbTransport) {
+        this.influxdbTransport = influxdbTransport;
+    }
+
+    /**
+     * Gets the address of the UDP or TCP listener.
+     *
+     * @return the address as host:port.
+     */
+    public String getInfluxdbSocketAddress() {
+        return influxdbSocketAddress;
+    }
+
+    /**
+     * Sets the address of the UDP or TCP listener.
+     *
+     * @param influxdbSocketAddress the address as host:port.
+     */
+    public void setInfluxdbSocketAddress(String influxdbSocketAddress) {
+        this.influxdbSocketAddress = influxdbSocketAddress;
+    }
+
+    /**
+     * Gets the max payload size of the datagram.
+     *
+     * @return the max payload size in bytes.
+     */
+    public int getInfluxdbUdpPayloadSize() {
+        return influxdbUdpPayloadSize;
+    }
+
+    /**
+     * Sets the max payload size of the datagram.
+     *
+     * @param influxdbUdpPayloadSize the max payload size in bytes.
+     */
+    public void setInfluxdbUdpPayloadSize(int influxdbUdpPayloadSize) {
+        this.influxdbUdpPayloadSize = influxdbUdpPayloadSize;
+    }
+
+    /**
+     * Gets the gzip level of the write requests.
+     *
+     * @return the gzip level from 1 to 9, 0 if the compression is disabled.
+     */
+    public int getInfluxdbCompressionLevel() {
+        return influxdbCompressionLevel;
+    }
+
+    /**
+     * Sets the gzip level of the write requests.
+     *
+     * @param influxdbCompressionLevel the gzip level from 1 to 9, 0 to disable the compression.
+     */
+    public void setInfluxdbCompressionLevel(int influxdbCompressionLevel) {
+        this.influxdbCompressionLevel = influxdbCompressionLevel;
+    }
+
+    /**
+     * Gets the max size of the points buffer, the estimated size of the encoded points.
+     *
+     * @return the max size of the buffer in megabytes.
+     */
+    public int getInfluxdbBufferMaxSize() {
+        return influxdbBufferMaxSize;
+    }
+
+    /**
+     * Sets the max size of the points buffer.
+     *
+     * @param influxdbBufferMaxSize the max size of the buffer in megabytes.
+     */
+    public void setInfluxdbBufferMaxSize(int influxdbBufferMaxSize) {
+        this.influxdbBufferMaxSize = influxdbBufferMaxSize;
+    }
+
+    /**
+     * Gets the way the points are shed when the buffer is full.
+     *
+     * @return the {@link OverflowPolicy}.
+     */
+    public OverflowPolicy getInfluxdbOverflowPolicy() {
+        return influxdbOverflowPolicy;
+    }
+
+    /**
+     * Sets the overflow policy of the points buffer.
+     *
+     * @param influxdbOverflowPolicy the {@link OverflowPolicy}.
+     */
+    public void setInfluxdbOverflowPolicy(OverflowPolicy influxdbOverflowPolicy) {
+        this.influxdbOverflowPolicy = influxdbOverflowPolicy;
+    }
+
+    /**
+     * Gets the time the producer waits for the free space in the buffer with the block overflow policy.
+     *
+     * @return the timeout in milliseconds.
+     */
+    public int getInfluxdbOverflowBlockTimeout() {
+        return influxdbOverflowBlockTimeout;
+    }
+
+    /**
+     * Sets the time to wait for the free space in the buffer.
+     *
+     * @param influxdbOverflowBlockTimeout the timeout in milliseconds.
+     */
+    public void setInfluxdbOverflowBlockTimeout(int influxdbOverflowBlockTimeout) {
+        this.influxdbOverflowBlockTimeout = influxdbOverflowBlockTimeout;
+    }
+
+    /**
+     * Gets the deadline of the final flush, the points not written by then are abandoned.
+     *
+     * @return the timeout in milliseconds.
+     */
+    public int getInfluxdbCloseTimeout() {
+        return influxdbCloseTimeout;
+    }
+
+    /**
+     * Sets the time to write the rest of the points when the test ends.
+     *
+     * @param influxdbCloseTimeout the timeout in milliseconds.
+     */
+    public void setInfluxdbCloseTimeout(int influxdbCloseTimeout) {
+        this.influxdbCloseTimeout = influxdbCloseTimeout;
+    }
+
+    /**
+     * Gets the amount of the batches written at the same time by the final flush.
+     *
+     * @return the amount of the batches.
+     */
+    public int getInfluxdbCloseParallelism() {
+        return influxdbCloseParallelism;
+    }
+
+    /**
+     * Sets the amount of the batches written at the same time by the final flush.
+     *
+     * @param influxdbCloseParallelism the amount of the batches.
+     */
+    public void setInfluxdbCloseParallelism(int influxdbCloseParallelism) {
+        this.influxdbCloseParallelism = influxdbCloseParallelism;
+    }
+
+    /**
+     * Gets the directory the file transport writes the capture files to.
+     *
+     * @return the capture directory.
+     */
+    public String getInfluxdbCaptureDirectory() {
+        return influxdbCaptureDirectory;
+    }
+
+    /**
+     * Sets the directory of the capture files.
+     *
+     * @param influxdbCaptureDirectory the capture directory.
+     */
+    public void setInfluxdbCaptureDirectory(String influxdbCaptureDirectory) {
+        this.influxdbCaptureDirectory = influxdbCaptureDirectory;
+    }
+
+    /**
+     * Gets the max size of the compressed capture file, the next file is started when it is reached.
+     *
+     * @return the max size of the file in megabytes.
+     */
+    public int getInfluxdbCaptureFileSize() {
+        return influxdbCaptureFileSize;
+    }
+
+    /**
+     * Sets the max size of the capture file.
+     *
+     * @param influxdbCaptureFileSize the max size of the file in megabytes.
+     */
+    public void setInfluxdbCaptureFileSize(int influxdbCaptureFileSize) {
+        this.influxdbCaptureFileSize = influxdbCaptureFileSize;
+    }
 }
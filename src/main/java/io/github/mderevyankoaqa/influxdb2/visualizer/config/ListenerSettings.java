@@ -0,0 +1,289 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+import com.influxdb.utils.Arguments;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+
+/**
+ * The immutable snapshot of the listener settings, is read once when the test starts,
+ * so the samples processing never reads the parameters of the {@link BackendListenerContext}.
+ *
+ * @author Michael Derevyanko
+ */
+public final class ListenerSettings {
+
+    /**
+     * Default test name.
+     */
+    public static final String DEFAULT_TEST_NAME = "Test";
+
+    /**
+     * Default node name.
+     */
+    public static final String DEFAULT_NODE_NAME = "Test-Node";
+
+    /**
+     * Default run id.
+     */
+    public static final String DEFAULT_RUN_ID = "R001";
+
+    /**
+     * Default samplers list, all the samplers.
+     */
+    public static final String DEFAULT_SAMPLERS_LIST = ".*";
+
+    /**
+     * Default samples write mode.
+     */
+    public static final String DEFAULT_SAMPLES_WRITE_MODE = "raw";
+
+    /**
+     * Default max amount of the distinct values per tag, 0 means no limit: the existing tests keep writing their labels as they are.
+     */
+    public static final int DEFAULT_MAX_TAG_VALUES = 0;
+
+    /**
+     * Default max depth of the recorded sub samples.
+     */
+    public static final int DEFAULT_SUB_SAMPLES_MAX_DEPTH = 10;
+
+    /**
+     * Default amount of the successful samples kept per label and flush interval in the sampled mode.
+     */
+    public static final int DEFAULT_SAMPLES_RESERVOIR_SIZE = 100;
+
+    /**
+     * Default interval of the throughput points in milliseconds, 0 disables them.
+     */
+    public static final int DEFAULT_THROUGHPUT_INTERVAL = 0;
+
+    /**
+     * Parameter Keys.
+     */
+    public static final String KEY_USE_REGEX_FOR_SAMPLER_LIST = "useRegexForSamplerList";
+    public static final String KEY_TEST_NAME = "testName";
+    public static final String KEY_RUN_ID = "runId";
+    public static final String KEY_INCLUDE_BODY_OF_FAILURES = "saveResponseBodyOfFailures";
+    public static final String KEY_DEDUPLICATE_BODY_OF_FAILURES = "deduplicateResponseBodyOfFailures";
+    public static final String KEY_NODE_NAME = "nodeName";
+    public static final String KEY_SAMPLERS_LIST = "samplersList";
+    public static final String KEY_RECORD_SUB_SAMPLES = "recordSubSamples";
+    public static final String KEY_SUB_SAMPLES_MAX_DEPTH = "subSamplesMaxDepth";
+    public static final String KEY_SAMPLES_WRITE_MODE = "samplesWriteMode";
+    public static final String KEY_SAMPLES_RESERVOIR_SIZE = "samplesReservoirSize";
+    public static final String KEY_THROUGHPUT_INTERVAL = "throughputInterval";
+    public static final String KEY_WRITE_TEST_SUMMARY = "writeTestSummary";
+    public static final String KEY_TAG_NORMALIZATION_RULES = "tagNormalizationRules";
+    public static final String KEY_MAX_TAG_VALUES = "maxTagValues";
+    public static final String KEY_ERROR_TEXT_AS_FIELDS = "errorTextAsFields";
+
+    private final String testName;
+    private final String runId;
+    private final String nodeName;
+    private final String samplersList;
+    private final boolean useRegexForSamplerList;
+    private final boolean recordSubSamples;
+    private final int subSamplesMaxDepth;
+    private final boolean saveResponseBodyOfFailures;
+    private final boolean deduplicateResponseBodyOfFailures;
+    private final int responseBodyLength;
+    private final SamplesWriteMode samplesWriteMode;
+    private final int samplesReservoirSize;
+    private final int throughputInterval;
+    private final boolean writeTestSummary;
+    private final String tagNormalizationRules;
+    private final int maxTagValues;
+    private final boolean errorTextAsFields;
+
+    /**
+     * Creates the new instance of {@link ListenerSettings}.
+     *
+     * @param context the {@link BackendListenerContext}
+     */
+    public ListenerSettings(BackendListenerContext context) {
+
+        this.testName = context.getParameter(KEY_TEST_NAME, DEFAULT_TEST_NAME);
+        this.runId = context.getParameter(KEY_RUN_ID, DEFAULT_RUN_ID); //Will be used to compare performance of R001, R002, etc of 'Test'
+        this.nodeName = context.getParameter(KEY_NODE_NAME, DEFAULT_NODE_NAME);
+
+        //List of samplers to record.
+        this.samplersList = context.getParameter(KEY_SAMPLERS_LIST, "");
+        this.useRegexForSamplerList = context.getBooleanParameter(KEY_USE_REGEX_FOR_SAMPLER_LIST, false);
+
+        // Indicates whether to write sub sample records to the database
+        this.recordSubSamples = Boolean.parseBoolean(context.getParameter(KEY_RECORD_SUB_SAMPLES, "false"));
+        this.subSamplesMaxDepth = context.getIntParameter(KEY_SUB_SAMPLES_MAX_DEPTH, DEFAULT_SUB_SAMPLES_MAX_DEPTH);
+        Arguments.checkNotNegativeNumber(this.subSamplesMaxDepth, KEY_SUB_SAMPLES_MAX_DEPTH);
+
+        this.saveResponseBodyOfFailures = context.getBooleanParameter(KEY_INCLUDE_BODY_OF_FAILURES, false);
+        this.deduplicateResponseBodyOfFailures = context.getBooleanParameter(KEY_DEDUPLICATE_BODY_OF_FAILURES, false);
+
+        this.responseBodyLength = context.getIntParameter(InfluxDBConfig.KEY_RESPONSE_BODY_LENGTH, InfluxDBConfig.DEFAULT_RESPONSE_BODY_LENGTH);
+        Arguments.checkNotNegativeNumber(this.responseBodyLength, InfluxDBConfig.KEY_RESPONSE_BODY_LENGTH);
+
+        this.samplesWriteMode = SamplesWriteMode.parse(context.getParameter(KEY_SAMPLES_WRITE_MODE, DEFAULT_SAMPLES_WRITE_MODE));
+        this.samplesReservoirSize = context.getIntParameter(KEY_SAMPLES_RESERVOIR_SIZE, DEFAULT_SAMPLES_RESERVOIR_SIZE);
+        Arguments.checkPositiveNumber(this.samplesReservoirSize, KEY_SAMPLES_RESERVOIR_SIZE);
+
+        this.throughputInterval = context.getIntParameter(KEY_THROUGHPUT_INTERVAL, DEFAULT_THROUGHPUT_INTERVAL);
+        Arguments.checkNotNegativeNumber(this.throughputInterval, KEY_THROUGHPUT_INTERVAL);
+        this.writeTestSummary = context.getBooleanParameter(KEY_WRITE_TEST_SUMMARY, true);
+
+        this.tagNormalizationRules = context.getParameter(KEY_TAG_NORMALIZATION_RULES, "");
+        this.maxTagValues = context.getIntParameter(KEY_MAX_TAG_VALUES, DEFAULT_MAX_TAG_VALUES);
+        Arguments.checkNotNegativeNumber(this.maxTagValues, KEY_MAX_TAG_VALUES);
+        this.errorTextAsFields = context.getBooleanParameter(KEY_ERROR_TEXT_AS_FIELDS, false);
+    }
+
+    /**
+     * Gets the test name.
+     *
+     * @return the test name.
+     */
+    public String getTestName() {
+        return this.testName;
+    }
+
+    /**
+     * Gets the run id, a unique identifier for a single execution (aka 'run') of a load test.
+     *
+     * @return the run id.
+     */
+    public String getRunId() {
+        return this.runId;
+    }
+
+    /**
+     * Gets the node name to sort out the PC from what test has been started.
+     *
+     * @return the node name.
+     */
+    public String getNodeName() {
+        return this.nodeName;
+    }
+
+    /**
+     * Gets the list of the samplers to record, the names or the regex.
+     *
+     * @return the samplers list.
+     */
+    public String getSamplersList() {
+        return this.samplersList;
+    }
+
+    /**
+     * Checks whether the samplers list is the regex.
+     *
+     * @return true if the samplers list is the regex; otherwise false.
+     */
+    public boolean isUseRegexForSamplerList() {
+        return this.useRegexForSamplerList;
+    }
+
+    /**
+     * Checks whether to record the sub samples.
+     *
+     * @return true to record the sub samples; otherwise false.
+     */
+    public boolean isRecordSubSamples() {
+        return this.recordSubSamples;
+    }
+
+    /**
+     * Gets the max depth of the recorded sub samples, 1 records the sub samples of the top level samples only.
+     *
+     * @return the max depth.
+     */
+    public int getSubSamplesMaxDepth() {
+        return this.subSamplesMaxDepth;
+    }
+
+    /**
+     * Checks whether the body of the failed response is going to be saved.
+     *
+     * @return true to save the body; otherwise false.
+     */
+    public boolean isSaveResponseBodyOfFailures() {
+        return this.saveResponseBodyOfFailures;
+    }
+
+    /**
+     * Checks whether the bodies of the failed responses are deduplicated.
+     *
+     * @return true to save each distinct body once; otherwise false.
+     */
+    public boolean isDeduplicateResponseBodyOfFailures() {
+        return this.deduplicateResponseBodyOfFailures;
+    }
+
+    /**
+     * Gets the max length of the saved response body.
+     *
+     * @return the response body length.
+     */
+    public int getResponseBodyLength() {
+        return this.responseBodyLength;
+    }
+
+    /**
+     * Gets the way the sample results are written.
+     *
+     * @return the {@link SamplesWriteMode}.
+     */
+    public SamplesWriteMode getSamplesWriteMode() {
+        return this.samplesWriteMode;
+    }
+
+    /**
+     * Gets the amount of the successful samples kept per label and flush interval in the sampled mode.
+     *
+     * @return the reservoir size.
+     */
+    public int getSamplesReservoirSize() {
+        return this.samplesReservoirSize;
+    }
+
+    /**
+     * Gets the interval of the throughput points, can be less than a second.
+     *
+     * @return the interval in milliseconds, 0 means the throughput points are not written.
+     */
+    public int getThroughputInterval() {
+        return this.throughputInterval;
+    }
+
+    /**
+     * Checks whether the summary of each sampler label is written when the test ends.
+     *
+     * @return true to write the summary; otherwise false.
+     */
+    public boolean isWriteTestSummary() {
+        return this.writeTestSummary;
+    }
+
+    /**
+     * Gets the rules normalizing the tag values.
+     *
+     * @return the normalization rules.
+     */
+    public String getTagNormalizationRules() {
+        return this.tagNormalizationRules;
+    }
+
+    /**
+     * Gets the max amount of the distinct values per tag.
+     *
+     * @return the max amount of the distinct values, 0 means no limit.
+     */
+    public int getMaxTagValues() {
+        return this.maxTagValues;
+    }
+
+    /**
+     * Checks whether the error texts are written as the fields.
+     *
+     * @return true to write the error texts as the fields; otherwise false.
+     */
+    public boolean isErrorTextAsFields() {
+        return this.errorTextAsFields;
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+/**
+ * Constants (Tag, Field, Measurement) names for the listener self-monitoring measurement.
+ * The counters are the values of the interval since the previous point.
+ * @author Michael Derevyanko
+ */
+public interface ListenerStatsMeasurement {
+
+	/**
+	 * Measurement name.
+	 */
+	String MEASUREMENT_NAME = "listenerStats";
+
+	/**
+	 * Tags.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Tags {
+		/**
+		 * Node name field.
+		 */
+		String NODE_NAME = "nodeName";
+
+		/**
+		 * Run Id field.
+		 */
+		String RUN_ID = "runId";
+
+		/**
+		 * Test name field.
+		 */
+		String TEST_NAME = "testName";
+	}
+
+	/**
+	 * Fields.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Fields {
+		/**
+		 * Points put to the buffer.
+		 */
+		String POINTS_ENQUEUED = "pointsEnqueued";
+
+		/**
+		 * Points imported to the database.
+		 */
+		String POINTS_WRITTEN = "pointsWritten";
+
+		/**
+		 * Points dropped since the spool was full, or the errors threshold was reached.
+		 */
+		String POINTS_DROPPED = "pointsDropped";
+
+		/**
+		 * Points shed by the overflow policy since the buffer was full.
+		 */
+		String POINTS_SHED = "pointsShed";
+
+		/**
+		 * Points in the buffer at the moment.
+		 */
+		String BUFFER_DEPTH = "bufferDepth";
+
+		/**
+		 * Estimated size of the points in the buffer at the moment, in bytes.
+		 */
+		String BUFFER_BYTES = "bufferBytes";
+
+		/**
+		 * Time the producers waited for the free space in the buffer with the block overflow policy, in ms.
+		 */
+		String PRODUCER_BLOCKED_TIME = "producerBlockedTime";
+
+		/**
+		 * Batches imported to the database.
+		 */
+		String BATCHES_WRITTEN = "batchesWritten";
+
+		/**
+		 * Batches failed to import.
+		 */
+		String BATCHES_FAILED = "batchesFailed";
+
+		/**
+		 * Max batch size.
+		 */
+		String BATCH_SIZE_MAX = "batchSizeMax";
+
+		/**
+		 * Mean batch size.
+		 */
+		String BATCH_SIZE_MEAN = "batchSizeMean";
+
+		/**
+		 * The current batch size limit, changes in the adaptive batching mode.
+		 */
+		String BATCH_SIZE_LIMIT = "batchSizeLimit";
+
+		/**
+		 * The current flush interval, ms; changes in the adaptive batching mode.
+		 */
+		String FLUSH_INTERVAL = "flushInterval";
+
+		/**
+		 * Mean write latency, ms.
+		 */
+		String WRITE_LATENCY_MEAN = "writeLatencyMean";
+
+		/**
+		 * 50th percentile of the write latency, ms.
+		 */
+		String WRITE_LATENCY_P50 = "writeLatencyP50";
+
+		/**
+		 * 95th percentile of the write latency, ms.
+		 */
+		String WRITE_LATENCY_P95 = "writeLatencyP95";
+
+		/**
+		 * 99th percentile of the write latency, ms.
+		 */
+		String WRITE_LATENCY_P99 = "writeLatencyP99";
+
+		/**
+		 * Max write latency, ms.
+		 */
+		String WRITE_LATENCY_MAX = "writeLatencyMax";
+
+		/**
+		 * Serialized line protocol bytes imported to the database.
+		 */
+		String SERIALIZED_BYTES = "serializedBytes";
+
+		/**
+		 * The size of the bodies of the written batches before the compression, bytes.
+		 */
+		String UNCOMPRESSED_BYTES = "uncompressedBytes";
+
+		/**
+		 * The size of the bodies of the written batches sent, bytes.
+		 */
+		String COMPRESSED_BYTES = "compressedBytes";
+
+		/**
+		 * The amount of the packets sent by the UDP or TCP transport.
+		 */
+		String PACKETS_SENT = "packetsSent";
+
+		/**
+		 * The amount of the packets the UDP or TCP transport failed to send.
+		 */
+		String PACKETS_DROPPED = "packetsDropped";
+
+		/**
+		 * Errors occurred one by one at the moment.
+		 */
+		String ERROR_STREAK = "errorStreak";
+
+		/**
+		 * Time spent in the handleSampleResults, ms.
+		 */
+		String HANDLE_SAMPLE_RESULTS_TIME = "handleSampleResultsTime";
+
+		/**
+		 * Samples processed by the handleSampleResults.
+		 */
+		String HANDLED_SAMPLES = "handledSamples";
+	}
+}
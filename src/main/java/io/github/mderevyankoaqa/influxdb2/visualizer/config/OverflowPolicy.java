@@ -0,0 +1,51 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+import java.util.Locale;
+
+/**
+ * The way the points are shed when the buffer of the listener is full.
+ * @author Michael Derevyanko
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The producer waits for the free space till the timeout, then the new point is shed.
+     */
+    BLOCK,
+
+    /**
+     * The oldest points in the buffer are shed to free the space for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The new point is shed.
+     */
+    DROP_NEWEST;
+
+    /**
+     * Parses the overflow policy set in the settings.
+     * @param value the policy name, case insensitive.
+     * @return the {@link OverflowPolicy}.
+     * @throws IllegalArgumentException when the policy is unknown.
+     */
+    public static OverflowPolicy parse(String value) throws IllegalArgumentException {
+
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                return policy;
+            }
+        }
+
+        throw new IllegalArgumentException("Expecting one of 'block', 'drop_oldest', 'drop_newest' as overflow policy, but you set " + value);
+    }
+
+    /**
+     * Gets the name of the policy as it is set in the settings.
+     * @return the policy name.
+     */
+    @Override
+    public String toString() {
+        return this.name().toLowerCase(Locale.ROOT);
+    }
+}
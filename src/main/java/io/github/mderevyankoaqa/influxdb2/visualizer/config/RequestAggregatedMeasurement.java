@@ -0,0 +1,134 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+/**
+ * Constants (Tag, Field, Measurement) names for the requests aggregated by the listener per flush interval.
+ * @author Michael Derevyanko
+ */
+public interface RequestAggregatedMeasurement {
+
+	/**
+	 * Measurement name.
+	 */
+	String MEASUREMENT_NAME = "requestsAggregated";
+
+	/**
+	 * Tags.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Tags {
+		/**
+		 * Request name tag.
+		 */
+		String REQUEST_NAME = "requestName";
+
+		/**
+		 * Influx DB tag for a unique identifier for each execution(aka 'run') of a load test.
+		 */
+		String RUN_ID = "runId";
+
+		/**
+		 * Test name field.
+		 */
+		String TEST_NAME = "testName";
+
+		/**
+		 * Node name field.
+		 */
+		String NODE_NAME = "nodeName";
+
+		/**
+		 * The result, can be pass or fail.
+		 */
+		String RESULT = "result";
+
+		/**
+		 * sampleType represents the type of sample, whether it is a request or a transaction controller.
+		 */
+		String SAMPLE_TYPE = "samplerType";
+	}
+
+	/**
+	 * Fields.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Fields {
+		/**
+		 * Requests count field.
+		 */
+		String REQUEST_COUNT = "count";
+
+		/**
+		 * Error count field.
+		 */
+		String ERROR_COUNT = "errorCount";
+
+		/**
+		 * Sent Bytes field.
+		 */
+		String SENT_BYTES = "sentBytes";
+
+		/**
+		 * Received Bytes field.
+		 */
+		String RECEIVED_BYTES = "receivedBytes";
+
+		/**
+		 * Response time fields prefix, see {@link Statistics} for the suffixes.
+		 */
+		String RESPONSE_TIME = "responseTime";
+
+		/**
+		 * Latency fields prefix, see {@link Statistics} for the suffixes.
+		 */
+		String LATENCY = "latency";
+
+		/**
+		 * Connect Time fields prefix, see {@link Statistics} for the suffixes.
+		 */
+		String CONNECT_TIME = "connectTime";
+	}
+
+	/**
+	 * Suffixes of the fields calculated from the histograms, for example 'responseTimeP95'.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Statistics {
+		/**
+		 * Minimum value.
+		 */
+		String MIN = "Min";
+
+		/**
+		 * Mean value.
+		 */
+		String MEAN = "Mean";
+
+		/**
+		 * 50th percentile.
+		 */
+		String P50 = "P50";
+
+		/**
+		 * 90th percentile.
+		 */
+		String P90 = "P90";
+
+		/**
+		 * 95th percentile.
+		 */
+		String P95 = "P95";
+
+		/**
+		 * 99th percentile.
+		 */
+		String P99 = "P99";
+
+		/**
+		 * Maximum value.
+		 */
+		String MAX = "Max";
+	}
+}
@@ -24,6 +24,11 @@ public interface RequestMeasurement {
 		 */
 		String REQUEST_NAME = "requestName";
 
+		/**
+		 * Parent request name tag, the label of the transaction controller or the sample the sub result belongs to.
+		 */
+		String PARENT_REQUEST_NAME = "parentRequestName";
+
 		/**
 		 * Influx DB tag for a unique identifier for each execution(aka 'run') of a load test.
 		 */
@@ -0,0 +1,104 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The filter of the samplers to record, set by the regex or by the list of the sampler names.
+ * The regex is compiled once; the decisions are cached per label, so the repeated labels are not matched again.
+ * @author Michael Derevyanko
+ */
+public final class SamplersFilter {
+
+    /**
+     * The regex accepting all the samplers, the default setting.
+     */
+    private static final String ACCEPT_ALL_REGEX = ".*";
+
+    /**
+     * The max amount of the cached decisions, protects from the unbounded growth with the dynamic labels.
+     */
+    private static final int MAX_CACHED_LABELS = 10000;
+
+    private final boolean acceptAll;
+    private final Pattern pattern;
+    private final Set<String> samplers;
+    private final Map<String, Boolean> decisions;
+
+    /**
+     * Creates the new instance of the {@link SamplersFilter}.
+     * @param acceptAll set to true to accept all the samplers.
+     * @param pattern the compiled regex, can be null.
+     * @param samplers the names of the samplers to accept.
+     */
+    private SamplersFilter(boolean acceptAll, Pattern pattern, Set<String> samplers) {
+        this.acceptAll = acceptAll;
+        this.pattern = pattern;
+        this.samplers = samplers;
+        this.decisions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates the filter by the regex, the label should match the whole regex.
+     * @param regex the regex.
+     * @return the {@link SamplersFilter}.
+     */
+    public static SamplersFilter fromRegex(String regex) {
+
+        if (ACCEPT_ALL_REGEX.equals(regex)) {
+            return new SamplersFilter(true, null, Collections.emptySet());
+        }
+
+        return new SamplersFilter(false, Pattern.compile(regex), Collections.emptySet());
+    }
+
+    /**
+     * Creates the filter by the list of the sampler names.
+     * @param samplersList the sampler names.
+     * @param separator the separator of the names.
+     * @return the {@link SamplersFilter}.
+     */
+    public static SamplersFilter fromList(String samplersList, String separator) {
+
+        Set<String> samplers = new HashSet<>();
+        Collections.addAll(samplers, samplersList.split(separator));
+
+        return new SamplersFilter(false, null, samplers);
+    }
+
+    /**
+     * Checks whether the sampler should be recorded.
+     * @param label the sampler label.
+     * @return true if the sampler is accepted; otherwise false.
+     */
+    public boolean isAccepted(String label) {
+
+        if (this.acceptAll) {
+            return true;
+        }
+
+        if (label == null) {
+            return false;
+        }
+
+        if (this.pattern == null) {
+            return this.samplers.contains(label);
+        }
+
+        Boolean decision = this.decisions.get(label);
+        if (decision != null) {
+            return decision;
+        }
+
+        boolean accepted = this.pattern.matcher(label).matches();
+        if (this.decisions.size() < MAX_CACHED_LABELS) {
+            this.decisions.put(label, accepted);
+        }
+
+        return accepted;
+    }
+}
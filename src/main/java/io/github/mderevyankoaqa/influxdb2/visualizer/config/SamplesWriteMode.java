@@ -0,0 +1,43 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+import java.util.Locale;
+
+/**
+ * The way the sample results are written to the database.
+ * @author Michael Derevyanko
+ */
+public enum SamplesWriteMode {
+
+    /**
+     * One {@link RequestMeasurement} point per sample.
+     */
+    RAW,
+
+    /**
+     * One {@link RequestAggregatedMeasurement} point per label and result each flush interval.
+     */
+    AGGREGATED,
+
+    /**
+     * The {@link RequestMeasurement} points of the random sample of the successful samples and of all the failed samples,
+     * plus the exact {@link RequestAggregatedMeasurement} point per label and result each flush interval.
+     */
+    SAMPLED;
+
+    /**
+     * Parses the mode set in the settings.
+     * @param value the mode name, case insensitive.
+     * @return the {@link SamplesWriteMode}.
+     * @throws IllegalArgumentException when the mode is unknown.
+     */
+    public static SamplesWriteMode parse(String value) throws IllegalArgumentException {
+
+        for (SamplesWriteMode mode : values()) {
+            if (mode.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("Expecting one of 'raw', 'aggregated', 'sampled' as samples write mode, but you set " + value);
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+/**
+ * Constants (Tag, Field, Measurement) names for the summary of the whole test per sampler label, written when the test ends.
+ * @author Michael Derevyanko
+ */
+public interface TestSummaryMeasurement {
+
+	/**
+	 * Measurement name.
+	 */
+	String MEASUREMENT_NAME = "testSummary";
+
+	/**
+	 * Tags.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Tags {
+		/**
+		 * Request name tag, the {@link Values#ALL} for the totals of the node.
+		 */
+		String REQUEST_NAME = "requestName";
+
+		/**
+		 * Influx DB tag for a unique identifier for each execution(aka 'run') of a load test.
+		 */
+		String RUN_ID = "runId";
+
+		/**
+		 * Test name field.
+		 */
+		String TEST_NAME = "testName";
+
+		/**
+		 * Node name field.
+		 */
+		String NODE_NAME = "nodeName";
+	}
+
+	/**
+	 * Fields.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Fields {
+		/**
+		 * Requests count field.
+		 */
+		String REQUEST_COUNT = "count";
+
+		/**
+		 * Errors count field.
+		 */
+		String ERROR_COUNT = "errorCount";
+
+		/**
+		 * Errors percentage field.
+		 */
+		String ERROR_PCT = "errorPct";
+
+		/**
+		 * Requests per second field, from the start of the first sample to the end of the last one.
+		 */
+		String THROUGHPUT = "throughput";
+
+		/**
+		 * Sent bytes field.
+		 */
+		String SENT_BYTES = "sentBytes";
+
+		/**
+		 * Received bytes field.
+		 */
+		String RECEIVED_BYTES = "receivedBytes";
+
+		/**
+		 * Response time mean field.
+		 */
+		String MEAN = "mean";
+
+		/**
+		 * Response time min field.
+		 */
+		String MIN = "min";
+
+		/**
+		 * Response time 50th percentile field.
+		 */
+		String P50 = "p50";
+
+		/**
+		 * Response time 90th percentile field.
+		 */
+		String P90 = "p90";
+
+		/**
+		 * Response time 95th percentile field.
+		 */
+		String P95 = "p95";
+
+		/**
+		 * Response time 99th percentile field.
+		 */
+		String P99 = "p99";
+
+		/**
+		 * Response time max field.
+		 */
+		String MAX = "max";
+	}
+
+	/**
+	 * Values.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Values {
+		/**
+		 * The request name of the totals of the node, counts the top level samples only.
+		 */
+		String ALL = "__all__";
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+/**
+ * Constants (Tag, Field, Measurement) names for the live throughput counted per sampler label each throughput interval.
+ * @author Michael Derevyanko
+ */
+public interface ThroughputMeasurement {
+
+	/**
+	 * Measurement name.
+	 */
+	String MEASUREMENT_NAME = "throughput";
+
+	/**
+	 * Tags.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Tags {
+		/**
+		 * Request name tag, the {@link Values#ALL} for the totals of the node.
+		 */
+		String REQUEST_NAME = "requestName";
+
+		/**
+		 * Influx DB tag for a unique identifier for each execution(aka 'run') of a load test.
+		 */
+		String RUN_ID = "runId";
+
+		/**
+		 * Test name field.
+		 */
+		String TEST_NAME = "testName";
+
+		/**
+		 * Node name field.
+		 */
+		String NODE_NAME = "nodeName";
+	}
+
+	/**
+	 * Fields.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Fields {
+		/**
+		 * Requests count field.
+		 */
+		String REQUEST_COUNT = "count";
+
+		/**
+		 * Errors count field.
+		 */
+		String ERROR_COUNT = "errorCount";
+
+		/**
+		 * Requests per second field.
+		 */
+		String REQUEST_RATE = "requestRate";
+
+		/**
+		 * Errors per second field.
+		 */
+		String ERROR_RATE = "errorRate";
+
+		/**
+		 * Sent bytes per second field.
+		 */
+		String SENT_BYTES_RATE = "sentBytesRate";
+
+		/**
+		 * Received bytes per second field.
+		 */
+		String RECEIVED_BYTES_RATE = "receivedBytesRate";
+
+		/**
+		 * Active threads field, is written with the totals of the node only.
+		 */
+		String ACTIVE_THREADS = "activeThreads";
+	}
+
+	/**
+	 * Values.
+	 *
+	 * @author Michael Derevyanko
+	 */
+	interface Values {
+		/**
+		 * The request name of the totals of the node, counts the top level samples only.
+		 */
+		String ALL = "__all__";
+	}
+}
@@ -0,0 +1,47 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.config;
+
+import java.util.Locale;
+
+/**
+ * The transport the line protocol records are written with.
+ * @author Michael Derevyanko
+ */
+public enum TransportType {
+
+    /**
+     * The InfluxDB HTTP API, each batch is acknowledged.
+     */
+    HTTP,
+
+    /**
+     * The datagrams of the MTU size, fire-and-forget.
+     */
+    UDP,
+
+    /**
+     * The persistent TCP connection, the records are written without the acknowledgement.
+     */
+    TCP,
+
+    /**
+     * The rotating local gzip files, no network at all; the files are loaded to InfluxDB after the test by the bulk loader.
+     */
+    FILE;
+
+    /**
+     * Parses the transport set in the settings.
+     * @param value the transport name, case insensitive.
+     * @return the {@link TransportType}.
+     * @throws IllegalArgumentException when the transport is unknown.
+     */
+    public static TransportType parse(String value) throws IllegalArgumentException {
+
+        for (TransportType type : values()) {
+            if (type.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                return type;
+            }
+        }
+
+        throw new IllegalArgumentException("Expecting one of 'http', 'udp', 'tcp', 'file' as transport, but you set " + value);
+    }
+}
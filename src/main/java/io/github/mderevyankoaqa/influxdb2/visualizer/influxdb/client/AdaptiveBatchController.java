@@ -0,0 +1,165 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import org.slf4j.Logger;
+
+/**
+ * The controller of the batch size and the flush interval. In the adaptive mode works as AIMD:
+ * the batch size grows by the additive step while the writes are faster than the target latency and the buffer grows,
+ * and is halved when the write is slower than the target or fails; the flush interval is halved while the buffer grows
+ * and grows back by the additive step while the buffer is mostly empty. Otherwise the values set in the settings are used.
+ * The write pool threads and the writer thread report to the controller, the producers read the current values.
+ *
+ * @author Michael Derevyanko
+ */
+public class AdaptiveBatchController {
+
+    /**
+     * The amount of the steps between the min and the max values.
+     */
+    private static final int ADDITIVE_STEPS = 20;
+
+    /**
+     * The min flush interval of the adaptive mode.
+     */
+    private static final int MIN_FLUSH_INTERVAL = 1000;
+
+    private final Logger LOGGER;
+    private final boolean adaptive;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int batchSizeStep;
+    private final int minFlushInterval;
+    private final int maxFlushInterval;
+    private final int flushIntervalStep;
+    private final long targetWriteLatency;
+
+    private volatile int batchSize;
+    private volatile int flushInterval;
+    private int previousBufferDepth;
+
+    /**
+     * Creates the new instance of the {@link AdaptiveBatchController}.
+     *
+     * @param config {@link InfluxDBConfig}
+     * @param logger {@link Logger}
+     */
+    public AdaptiveBatchController(InfluxDBConfig config, Logger logger) {
+
+        this.LOGGER = logger;
+        this.adaptive = config.isInfluxdbAdaptiveBatching();
+
+        this.maxBatchSize = Math.max(1, config.getInfluxdbBatchSize());
+        this.minBatchSize = Math.min(this.maxBatchSize, Math.max(1, config.getInfluxdbMinBatchSize()));
+        this.batchSizeStep = Math.max(1, (this.maxBatchSize - this.minBatchSize) / ADDITIVE_STEPS);
+
+        this.maxFlushInterval = Math.max(1, config.getInfluxdbFlushInterval());
+        this.minFlushInterval = Math.min(this.maxFlushInterval, MIN_FLUSH_INTERVAL);
+        this.flushIntervalStep = Math.max(1, (this.maxFlushInterval - this.minFlushInterval) / ADDITIVE_STEPS);
+
+        this.targetWriteLatency = config.getInfluxdbTargetWriteLatency();
+
+        // The adaptive batch size starts from the middle, so it has the room to grow as well as to back off; the max is the upper bound only.
+        this.batchSize = this.adaptive ? this.minBatchSize + (this.maxBatchSize - this.minBatchSize) / 2 : this.maxBatchSize;
+        this.flushInterval = this.maxFlushInterval;
+    }
+
+    /**
+     * Gets the current batch size.
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Gets the current flush interval.
+     *
+     * @return the flush interval in milliseconds.
+     */
+    public int getFlushInterval() {
+        return this.flushInterval;
+    }
+
+    /**
+     * Reports the written batch: grows the batch size if the write was fast, halves it if the write was slow.
+     *
+     * @param size the amount of the points in the batch.
+     * @param latency the write latency in milliseconds.
+     */
+    public synchronized void onBatchWritten(int size, long latency) {
+
+        if (!this.adaptive) {
+            return;
+        }
+
+        if (latency > this.targetWriteLatency) {
+            this.updateBatchSize(this.batchSize / 2, "write latency " + latency + " ms is above the target");
+        } else if (size >= this.batchSize && this.previousBufferDepth >= this.batchSize) {
+            // Only the full batches while the points are waiting tell the bigger batch is needed.
+            this.updateBatchSize(this.batchSize + this.batchSizeStep, "write latency " + latency + " ms is below the target");
+        }
+    }
+
+    /**
+     * Reports the failed batch, halves the batch size.
+     */
+    public synchronized void onBatchFailed() {
+
+        if (this.adaptive) {
+            this.updateBatchSize(this.batchSize / 2, "write failed");
+        }
+    }
+
+    /**
+     * Reports the buffer depth before the import: halves the flush interval if the buffer grows,
+     * grows the interval by the step if the buffer is mostly empty.
+     *
+     * @param bufferDepth the amount of the points in the buffer.
+     */
+    public synchronized void onImport(int bufferDepth) {
+
+        if (!this.adaptive) {
+            return;
+        }
+
+        if (bufferDepth > this.previousBufferDepth && bufferDepth >= this.batchSize) {
+            this.updateFlushInterval(this.flushInterval / 2, "buffer grows to " + bufferDepth + " points");
+        } else if (bufferDepth < this.batchSize / 2) {
+            this.updateFlushInterval(this.flushInterval + this.flushIntervalStep, "buffer keeps " + bufferDepth + " points");
+        }
+
+        this.previousBufferDepth = bufferDepth;
+    }
+
+    /**
+     * Sets the batch size within the bounds, logs the change.
+     *
+     * @param value the new batch size.
+     * @param reason the reason of the change.
+     */
+    private void updateBatchSize(int value, String reason) {
+
+        int newValue = Math.max(this.minBatchSize, Math.min(this.maxBatchSize, value));
+        if (newValue != this.batchSize) {
+            this.batchSize = newValue;
+            this.LOGGER.info("Adaptive batching --> batch size is " + newValue + " since " + reason);
+        }
+    }
+
+    /**
+     * Sets the flush interval within the bounds, logs the change.
+     *
+     * @param value the new flush interval.
+     * @param reason the reason of the change.
+     */
+    private void updateFlushInterval(int value, String reason) {
+
+        int newValue = Math.max(this.minFlushInterval, Math.min(this.maxFlushInterval, value));
+        if (newValue != this.flushInterval) {
+            this.flushInterval = newValue;
+            this.LOGGER.info("Adaptive batching --> flush interval is " + newValue + " ms since " + reason);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The transport appending the records to the local gzip files, no network at all.
+ * The file is written as {@code *.lp.gz.part} and is renamed to {@code *.lp.gz} once it reaches the max size or the transport is closed,
+ * so the bulk loader takes the complete files only. Each batch is flushed to the file, so the file of the crashed test keeps the written batches.
+ * The names start with the creation time, so the files are sorted in the order they were written.
+ * @author Michael Derevyanko
+ */
+public class CaptureFileTransport implements LineProtocolTransport {
+
+    /**
+     * The extension of the complete capture file.
+     */
+    public static final String FILE_SUFFIX = ".lp.gz";
+
+    /**
+     * The extension of the capture file being written.
+     */
+    public static final String PART_SUFFIX = ".part";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The number of the transport in the JVM, keeps the names unique when several clients write to the same directory.
+     */
+    private static final AtomicInteger TRANSPORTS_COUNTER = new AtomicInteger();
+
+    private final Logger LOGGER;
+    private final Path directory;
+    private final long maxFileSize;
+    private final ListenerStatistics statistics;
+    private final String namePrefix;
+    private int fileNumber;
+    private Path file;
+    private FileOutputStream fileOutput;
+    private Writer writer;
+    private long fileUncompressedBytes;
+
+    /**
+     * Creates the new instance of the {@link CaptureFileTransport}, creates the directory if it does not exist.
+     * @param directory the directory of the capture files.
+     * @param maxFileSize the max size of the compressed file in bytes.
+     * @param statistics the {@link ListenerStatistics} to count the bytes before and after the compression.
+     * @param logger {@link Logger}
+     * @throws IOException when the directory can not be created.
+     */
+    public CaptureFileTransport(Path directory, long maxFileSize, ListenerStatistics statistics, Logger logger) throws IOException {
+
+        this.directory = Files.createDirectories(directory);
+        this.maxFileSize = maxFileSize;
+        this.statistics = statistics;
+        this.LOGGER = logger;
+        this.namePrefix = String.format(Locale.ROOT, "capture-%013d-%02d-", System.currentTimeMillis(), TRANSPORTS_COUNTER.incrementAndGet());
+    }
+
+    /**
+     * Appends the records to the current file, starts the next file when the max size is reached.
+     * @param records the line protocol records with the nanoseconds precision.
+     * @throws IOException when the file can not be written.
+     */
+    @Override
+    public synchronized void write(List<String> records) throws IOException {
+
+        if (this.writer == null) {
+            this.openFile();
+        }
+
+        long uncompressedBytes = 0;
+        for (String record : records) {
+            this.writer.write(record);
+            this.writer.write('\n');
+            uncompressedBytes += RecordBuffer.RECORD_BYTES.applyAsLong(record);
+        }
+
+        // The sync flush ends the batch on the byte boundary, so the file is readable up to the last batch.
+        this.writer.flush();
+
+        long position = this.fileOutput.getChannel().position();
+        this.fileUncompressedBytes += uncompressedBytes;
+        this.statistics.onBatchCompressed(uncompressedBytes, uncompressedBytes * position / Math.max(1, this.fileUncompressedBytes));
+
+        if (position >= this.maxFileSize) {
+            this.closeFile();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+
+        try {
+            this.closeFile();
+        } catch (IOException e) {
+            this.LOGGER.error("Failed to close the capture file " + this.file, e);
+        }
+    }
+
+    /**
+     * Opens the next file.
+     * @throws IOException when the file can not be created.
+     */
+    private void openFile() throws IOException {
+
+        this.fileNumber++;
+        this.file = this.directory.resolve(String.format(Locale.ROOT, "%s%06d%s%s", this.namePrefix, this.fileNumber, FILE_SUFFIX, PART_SUFFIX));
+        this.fileOutput = new FileOutputStream(this.file.toFile());
+        this.writer = new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(this.fileOutput, STREAM_BUFFER_SIZE), STREAM_BUFFER_SIZE, true),
+                StandardCharsets.UTF_8);
+        this.fileUncompressedBytes = 0;
+
+        this.LOGGER.info("Capture file has been opened --> " + this.file);
+    }
+
+    /**
+     * Finishes the current file and renames it to the complete one.
+     * @throws IOException when the file can not be finished.
+     */
+    private void closeFile() throws IOException {
+
+        if (this.writer == null) {
+            return;
+        }
+
+        Path partFile = this.file;
+        try {
+            this.writer.close();
+        } finally {
+            this.writer = null;
+            this.fileOutput = null;
+        }
+
+        String name = partFile.getFileName().toString();
+        Path completeFile = partFile.resolveSibling(name.substring(0, name.length() - PART_SUFFIX.length()));
+        Files.move(partFile, completeFile, StandardCopyOption.ATOMIC_MOVE);
+
+        this.LOGGER.info("Capture file has been completed --> " + completeFile);
+    }
+}
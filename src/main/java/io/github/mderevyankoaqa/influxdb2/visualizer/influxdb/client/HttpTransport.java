@@ -0,0 +1,119 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The transport writing the batches by the InfluxDB HTTP API, waits for the acknowledgement of each batch.
+ * The body of the write request is streamed by the {@link LineProtocolRequestBody}: encoded and compressed while it is sent.
+ * All the transports share one connection pool, so the clients writing to the different buckets of the same InfluxDB reuse the connections.
+ * @author Michael Derevyanko
+ */
+public class HttpTransport implements LineProtocolTransport {
+
+    /**
+     * The timeouts of the InfluxDB client defaults.
+     */
+    private static final int TIMEOUT_SECONDS = 10;
+
+    /**
+     * The max length of the error response kept in the exception message.
+     */
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    /**
+     * The max amount of the idle connections kept alive by the shared pool.
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 32;
+
+    /**
+     * The client owning the shared connection pool, the clients of the transports are derived from it.
+     */
+    private static final OkHttpClient SHARED_CLIENT = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES))
+            .build();
+
+    /**
+     * The amount of the open transports, the last closed one evicts the idle connections.
+     */
+    private static final AtomicInteger OPEN_TRANSPORTS = new AtomicInteger();
+
+    private final OkHttpClient httpClient;
+    private final HttpUrl writeUrl;
+    private final String authorization;
+    private final int compressionLevel;
+    private final ListenerStatistics statistics;
+
+    /**
+     * Creates the new instance of the {@link HttpTransport}.
+     * @param config {@link InfluxDBConfig}
+     * @param statistics the {@link ListenerStatistics} to count the bytes before and after the compression.
+     * @throws IllegalArgumentException when the URL is not valid.
+     */
+    public HttpTransport(InfluxDBConfig config, ListenerStatistics statistics) throws IllegalArgumentException {
+
+        // The derived client shares the connection pool, each batch in flight keeps its connection alive.
+        this.httpClient = SHARED_CLIENT.newBuilder()
+                .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+        this.writeUrl = HttpUrl.get(config.getInfluxDBURL()).newBuilder()
+                .addPathSegments("api/v2/write")
+                .addQueryParameter("org", config.getInfluxOrganization())
+                .addQueryParameter("bucket", config.getInfluxBucket())
+                .addQueryParameter("precision", "ns")
+                .build();
+
+        this.authorization = "Token " + config.getInfluxToken();
+        this.compressionLevel = config.getInfluxdbCompressionLevel();
+        this.statistics = statistics;
+
+        OPEN_TRANSPORTS.incrementAndGet();
+    }
+
+    @Override
+    public void write(List<String> records) throws IOException {
+
+        LineProtocolRequestBody body = new LineProtocolRequestBody(records, this.compressionLevel);
+
+        Request.Builder request = new Request.Builder()
+                .url(this.writeUrl)
+                .header("Authorization", this.authorization)
+                .post(body);
+        if (body.isCompressed()) {
+            request.header("Content-Encoding", "gzip");
+        }
+
+        try (Response response = this.httpClient.newCall(request.build()).execute()) {
+            if (!response.isSuccessful()) {
+                ResponseBody responseBody = response.body();
+                String error = responseBody == null ? "" : InfluxDatabaseUtility.getSubstring(responseBody.string(), MAX_ERROR_LENGTH);
+                throw new IOException("HTTP " + response.code() + " " + error);
+            }
+        }
+
+        // Counted once per written batch, whatever times the body has been sent.
+        this.statistics.onBatchCompressed(body.getUncompressedBytes(), body.getWrittenBytes());
+    }
+
+    @Override
+    public void close() {
+
+        // The other transports may still use the pool.
+        if (OPEN_TRANSPORTS.decrementAndGet() == 0) {
+            SHARED_CLIENT.connectionPool().evictAll();
+        }
+    }
+}
@@ -1,172 +1,851 @@
 package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
 
-import com.influxdb.client.*;
+import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
 import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.TransportType;
+import io.github.mderevyankoaqa.influxdb2.visualizer.relay.RelayClient;
+import io.github.mderevyankoaqa.influxdb2.visualizer.relay.RelayServer;
 import org.slf4j.Logger;
 
-import java.util.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The client to work with Influx DB 2.0 *
+ * Works as the pipeline: producers put points to the lock-free buffer bounded by the size of the points, the single writer thread drains full batches and imports them,
+ * the same thread flushes the buffer by the flush interval. So the thread collecting the data never performs HTTP calls.
+ * The batches are written by the pool of the connections, the amount of the batches in flight is limited;
+ * the writer thread waits for the free slot, so the buffer takes the backpressure; the overflow policy decides what to shed when it is full.
+ * The batch is limited by the amount of the points and by the payload size; the {@link AdaptiveBatchController} can adapt the batch size
+ * and the flush interval to the write latency.
+ * The batches are written by the {@link LineProtocolTransport}: the InfluxDB HTTP API, UDP or TCP set in the settings,
+ * or the {@link RelayServer} when the relay address is set.
+ * The clients are created and closed by the {@link InfluxDatabaseClientRegistry}, one per endpoint, organization and bucket.
  *
  * @author Michael Derevyanko
  */
 public class InfluxDatabaseClient {
 
+    /**
+     * The min amount of the batches the points buffer can hold, whatever their size is.
+     */
+    private static final int BUFFER_CAPACITY_IN_BATCHES = 8;
+
     private final org.slf4j.Logger LOGGER;
     private final InfluxDBConfig influxDBConfig;
-    private final List<Point> points;
-    private InfluxDBClient influxDB;
-
-    private WriteApiBlocking writeApi;
-    private final List<Integer> errorsAmount;
-
-    private static volatile InfluxDatabaseClient instance;
-
+    private final RecordBuffer points;
+    private final Queue<List<String>> failedBatches;
+    private final ReentrantLock importLock;
+    private final AtomicBoolean importRequested;
+    private volatile boolean closing;
+    private boolean finalFlushDone;
+    private final Semaphore inFlightBatches;
+    private final AdaptiveBatchController batchController;
+    private final long maxBatchBytes;
+    private ScheduledExecutorService writer;
+    private ExecutorService writePool;
+    private WriteAheadSpool spool;
+    private LineProtocolTransport transport;
+
+    private final AtomicInteger errorsAmount;
+    private final AtomicLong droppedPoints;
+    private final ListenerStatistics statistics;
+    private final AtomicReference<StatisticsTags> statisticsTags;
+    private final String key;
 
     /**
      * Creates a new instance of the @link InfluxDatabaseClient.
      *
      * @param config {@link InfluxDBConfig}
+     * @param key the key of the client in the {@link InfluxDatabaseClientRegistry}.
      * @param logger {@link Logger}
      */
-    private InfluxDatabaseClient(InfluxDBConfig config, Logger logger) {
-
-        this.points = Collections.synchronizedList(new ArrayList<>());
-        this.errorsAmount = Collections.synchronizedList(new ArrayList<>());
+    InfluxDatabaseClient(InfluxDBConfig config, String key, Logger logger) {
+
+        int batchSize = Math.max(1, config.getInfluxdbBatchSize());
+        this.statistics = new ListenerStatistics();
+        this.statisticsTags = new AtomicReference<>();
+        this.points = new RecordBuffer(config.getInfluxdbBufferMaxSize() * 1024L * 1024L, batchSize * BUFFER_CAPACITY_IN_BATCHES,
+                config.getInfluxdbOverflowPolicy(), config.getInfluxdbOverflowBlockTimeout(), this.statistics);
+        this.failedBatches = new ConcurrentLinkedQueue<>();
+        this.importLock = new ReentrantLock();
+        this.importRequested = new AtomicBoolean();
+        this.inFlightBatches = new Semaphore(Math.max(1, config.getInfluxdbMaxInFlightBatches()));
+        this.batchController = new AdaptiveBatchController(config, logger);
+        this.maxBatchBytes = config.getInfluxdbMaxBatchPayloadSize() * 1024L;
+        this.errorsAmount = new AtomicInteger();
+        this.droppedPoints = new AtomicLong();
         this.influxDBConfig = config;
+        this.key = key;
         this.LOGGER = logger;
 
-        this.LOGGER.info("New instance of InfluxDatabaseClient has been created!");
+        this.LOGGER.info("New instance of InfluxDatabaseClient has been created for " + key);
     }
 
     /**
-     * Creates the singleton instance of the {@link InfluxDatabaseClient}.
-     * @param config {@link InfluxDBConfig}
-     * @param logger {@link Logger}
-     * @return the created instance of {@link InfluxDatabaseClient}
+     * Collects the {@link Point} converted to the line protocol with the nanoseconds precision.
+     *
+     * @param point the Influxdb {@link Point}.
      */
-    public static InfluxDatabaseClient getInstance(InfluxDBConfig config, Logger logger) {
+    public void collectData(Point point) {
 
-        InfluxDatabaseClient result = instance;
-        if (result != null) {
-            return result;
-        }
-        synchronized (InfluxDatabaseClient.class) {
-            if (instance == null) {
-                 instance = new InfluxDatabaseClient(config, logger);
-            }
-            return instance;
-        }
+        this.collectData(point.toLineProtocol(null, WritePrecision.NS));
     }
 
     /**
-     * Collects the {@link Point} in {@link List<Point>}
-     * Writes {@link List<Point>} when Batch size equals to size of the {@link List<Point>}; cleans {@link List<Point>} after writing.
+     * Collects the line protocol record in the {@link RecordBuffer}.
+     * Hands the import over to the writer thread when Batch size is reached; the caller never performs the import.
+     * When the buffer is full the overflow policy sheds the record or the oldest ones, or makes the caller wait for the import.
      *
-     * @param point the Influxdb {@link Point}.
+     * @param record the line protocol record with the nanoseconds precision.
      */
-    public synchronized void collectData(Point point) {
+    public void collectData(String record) {
 
         this.LOGGER.debug("Sending to write");
-        this.points.add(point);
+
+        long shedPoints = this.points.getShedRecords();
+        if (this.points.offer(record, this::requestImport)) {
+            this.statistics.onPointEnqueued();
+        }
+
+        if (shedPoints == 0 && this.points.getShedRecords() != 0) {
+            this.LOGGER.warn("The buffer with size " + this.points.getMaxBytes() / 1024 + " KB is full, points are shed by the "
+                    + this.points.getPolicy() + " overflow policy; see the total amount after the test.");
+        }
 
         this.checkBatchSize();
     }
 
     /**
-     * Closes Influx DB client, cancels timers to write {@link Point}, cleaning {@link List<Point>} collection; writes Points before closing.
+     * Gets the {@link ListenerStatistics} to count the time spent by the listener.
+     *
+     * @return the {@link ListenerStatistics}.
+     */
+    public ListenerStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Makes the client write the listener statistics point each flush interval and before closing.
+     * The client shared by several listeners writes the one point with the tags of the first listener.
+     *
+     * @param nodeName the node name.
+     * @param runId the run id.
+     * @param testName the test name.
+     */
+    public void writeStatistics(String nodeName, String runId, String testName) {
+        this.statisticsTags.compareAndSet(null, new StatisticsTags(nodeName, runId, testName));
+    }
+
+    /**
+     * Closes Influx DB client, stops the writer thread, cleaning the points buffer; writes Points before closing.
+     * The whole closing is limited by the close timeout.
      */
-    public synchronized void close() {
+    void close() {
 
-        this.LOGGER.info("The final step ---> importing before closing.");
-        this.importData();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.influxDBConfig.getInfluxdbCloseTimeout());
 
-        this.influxDB.close();
-        this.points.clear();
+        // The running import stops after the current batch, the final flush takes the rest.
+        this.closing = true;
+        this.stopWriter(deadline);
+        this.addStatisticsPoint();
 
-        if (instance != null) {
+        this.importLock.lock();
+        try {
+            this.LOGGER.info("The final step ---> importing before closing.");
+            this.drainBeforeClosing(deadline);
+
+            if (this.transport != null) {
+                this.transport.close();
+            }
 
-            instance = null;
-            this.LOGGER.info("Instance of InfluxDatabaseClient has been refreshed!");
+            if (this.spool != null) {
+                if (!this.spool.isEmpty()) {
+                    this.LOGGER.warn("Batches kept in the spool to be replayed by the next test --> " + this.spool.getPendingBatches());
+                }
+                this.spool.close();
+            }
+
+            if (this.points.getShedRecords() != 0) {
+                this.LOGGER.warn("Points shed by the " + this.points.getPolicy() + " overflow policy since the buffer was full --> " + this.points.getShedRecords());
+            }
+
+            if (this.droppedPoints.get() != 0) {
+                this.LOGGER.warn("Points dropped since the spool was full --> " + this.droppedPoints.get());
+            }
+        } finally {
+            this.importLock.unlock();
         }
+
+        this.LOGGER.info("Instance of InfluxDatabaseClient has been closed for " + this.key);
+    }
+
+    /**
+     * Gets the key of the client in the {@link InfluxDatabaseClientRegistry}.
+     *
+     * @return the key.
+     */
+    String getKey() {
+        return this.key;
     }
 
     /**
-     * Imports {@link Point} from {@link List<Point>} collection if items exists. Cleans {@link List<Point>} after writing.
+     * Imports {@link Point} from the points buffer if items exists, waits for the import started by another thread.
+     * Is called by the writer thread by the flush interval and when Batch size is reached.
      * Manages Error Amount counter. The limit of the errors occurred one by one is 5 (the 5 - is default setting and can be updated in UI of the plugin - the key is KEY_INFLUX_DB_THRESHOLD_ERROR). After 5 such errors, import is stopping till and of the tes.
      * If less 5 error has occurred and next import attempt was successful - errors counter will be refreshed.
+     * When the spool is enabled, the batches failed to import are spooled instead of dropping and are replayed once import works again.
+     */
+    public void importData() {
+
+        this.importLock.lock();
+        try {
+            this.importBufferedData();
+        } finally {
+            this.importLock.unlock();
+        }
+    }
+
+    /**
+     * Creates the Influx DB client instance.
+     */
+    void setupInfluxClient() {
+
+        this.LOGGER.info("InfluxDBClientFactory is going to use the following properties:");
+        this.LOGGER.info("URL --> " + this.influxDBConfig.getInfluxDBURL());
+        this.LOGGER.info("Token --> " + this.influxDBConfig.getInfluxToken());
+        this.LOGGER.info("Organization --> " + this.influxDBConfig.getInfluxOrganization());
+        this.LOGGER.info("Bucket --> " + this.influxDBConfig.getInfluxBucket());
+        this.LOGGER.info("Max batches in flight --> " + this.influxDBConfig.getInfluxdbMaxInFlightBatches());
+        this.LOGGER.info("Max batch payload size --> " + this.influxDBConfig.getInfluxdbMaxBatchPayloadSize() + " KB");
+        this.LOGGER.info("Adaptive batching --> " + this.influxDBConfig.isInfluxdbAdaptiveBatching());
+
+        try {
+            int maxInFlightBatches = Math.max(1, this.influxDBConfig.getInfluxdbMaxInFlightBatches());
+
+            this.transport = this.createTransport();
+
+            this.openSpool();
+
+            this.startWritePool(maxInFlightBatches);
+            this.startWriter();
+
+        } catch (Exception e) {
+            this.LOGGER.error("Failed to create client", e);
+        }
+    }
+
+    /**
+     * Creates the transport set in the settings.
+     *
+     * @return the {@link LineProtocolTransport}.
+     * @throws IOException when the socket can not be opened or the capture directory can not be created.
      */
-    public synchronized void importData() {
+    private LineProtocolTransport createTransport() throws IOException {
+
+        if (!this.influxDBConfig.getInfluxdbRelayAddress().isEmpty()) {
+            // The relay writes to InfluxDB, the URL and the credentials are the relay settings then.
+            this.LOGGER.info("Relay --> " + this.influxDBConfig.getInfluxdbRelayAddress());
+            return new RelayClient(this.influxDBConfig.getInfluxdbRelayAddress());
+        }
+
+        TransportType transportType = this.influxDBConfig.getInfluxdbTransport();
+        this.LOGGER.info("Transport --> " + transportType);
+
+        switch (transportType) {
+            case UDP:
+                this.LOGGER.info("Socket address --> " + this.influxDBConfig.getInfluxdbSocketAddress() + ", datagram payload size --> " + this.influxDBConfig.getInfluxdbUdpPayloadSize());
+                return new UdpTransport(InfluxDatabaseUtility.parseSocketAddress(this.influxDBConfig.getInfluxdbSocketAddress(), InfluxDBConfig.KEY_INFLUX_DB_SOCKET_ADDRESS),
+                        this.influxDBConfig.getInfluxdbUdpPayloadSize(), this.statistics, this.LOGGER);
+            case TCP:
+                this.LOGGER.info("Socket address --> " + this.influxDBConfig.getInfluxdbSocketAddress());
+                return new TcpTransport(InfluxDatabaseUtility.parseSocketAddress(this.influxDBConfig.getInfluxdbSocketAddress(), InfluxDBConfig.KEY_INFLUX_DB_SOCKET_ADDRESS),
+                        this.statistics, this.LOGGER);
+            case FILE:
+                this.LOGGER.info("Capture directory --> " + this.influxDBConfig.getInfluxdbCaptureDirectory() + ", file size --> " + this.influxDBConfig.getInfluxdbCaptureFileSize() + " MB");
+                return new CaptureFileTransport(Paths.get(this.influxDBConfig.getInfluxdbCaptureDirectory()),
+                        this.influxDBConfig.getInfluxdbCaptureFileSize() * 1024L * 1024L, this.statistics, this.LOGGER);
+            default:
+                this.LOGGER.info("Compression level --> " + this.influxDBConfig.getInfluxdbCompressionLevel());
+                return new HttpTransport(this.influxDBConfig, this.statistics);
+        }
+    }
+
+    /**
+     * Starts the writer thread, it imports the data by the flush interval.
+     */
+    private void startWriter() {
+
+        ScheduledThreadPoolExecutor writerExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "influxdb-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // The next flush is not waited for when the writer stops.
+        writerExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.writer = writerExecutor;
+
+        this.scheduleFlush();
+    }
+
+    /**
+     * Schedules the next flush by the current flush interval, the interval can be changed by the {@link AdaptiveBatchController}.
+     */
+    private void scheduleFlush() {
+
+        try {
+            this.writer.schedule(() -> {
+                try {
+                    this.addStatisticsPoint();
+                    this.importData();
+                } finally {
+                    this.scheduleFlush();
+                }
+            }, this.batchController.getFlushInterval(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The writer is stopped, the final import takes the rest.
+        }
+    }
+
+    /**
+     * Collects the listener statistics point since the previous call, with the current buffer depth and errors streak.
+     * Is called by the writer thread only, so the statistics are reset by the single thread.
+     * The writer is the consumer of the buffer, so the point skips the overflow policy: it is shed if the buffer is full instead of waiting.
+     */
+    private void addStatisticsPoint() {
+
+        StatisticsTags tags = this.statisticsTags.get();
+        if (tags == null) {
+            return;
+        }
+
+        Point point = this.statistics.getPoint(tags.nodeName, tags.runId, tags.testName, this.points.size(), this.points.getBytes(),
+                this.errorsAmount.get(), this.batchController.getBatchSize(), this.batchController.getFlushInterval(), System.currentTimeMillis());
+        if (this.points.tryOffer(point.toLineProtocol(null, WritePrecision.NS))) {
+            this.statistics.onPointEnqueued();
+        }
+    }
 
-        if (this.errorsAmount.size() >= this.influxDBConfig.getInfluxdbThresholdError())
+    /**
+     * Starts the pool of the threads writing the batches.
+     *
+     * @param maxInFlightBatches the max amount of the batches written at the same time.
+     */
+    private void startWritePool(int maxInFlightBatches) {
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.writePool = Executors.newFixedThreadPool(maxInFlightBatches, runnable -> {
+            Thread thread = new Thread(runnable, "influxdb-write-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the pool of the threads writing the batches, waits for the batches in flight till the deadline.
+     *
+     * @param deadline the deadline by {@link System#nanoTime()}.
+     */
+    private void stopWritePool(long deadline) {
+
+        if (this.writePool == null) {
+            return;
+        }
+
+        this.writePool.shutdown();
+        try {
+            if (!this.writePool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                this.LOGGER.warn("The batches in flight didn't finish before the close timeout!");
+            }
+        } catch (InterruptedException e) {
+            this.LOGGER.error("Error waiting for end of the batches in flight " + e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the writer thread, waits for the running import till the deadline.
+     *
+     * @param deadline the deadline by {@link System#nanoTime()}.
+     */
+    private void stopWriter(long deadline) {
+
+        if (this.writer == null) {
+            return;
+        }
+
+        this.writer.shutdown();
+        try {
+            if (!this.writer.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                this.LOGGER.warn("The writer thread didn't finish before the close timeout!");
+            }
+        } catch (InterruptedException e) {
+            this.LOGGER.error("Error waiting for end of the writer thread " + e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks batch size, hands the import over to the writer thread when limit is reached.
+     * Only one import request can be pending, so the producers do not flood the writer.
+     */
+    private void checkBatchSize()
+    {
+        // The batch is full by the amount of the points or by the payload size.
+        int batchSize = this.batchController.getBatchSize();
+
+        if (this.points.size() >= batchSize || this.points.getBytes() >= this.maxBatchBytes) {
+            this.requestImport();
+        }
+    }
+
+    /**
+     * Hands the import over to the writer thread, unless it is requested already.
+     */
+    private void requestImport()
+    {
+        if (this.writer != null && this.importRequested.compareAndSet(false, true)) {
+
+            try {
+                this.writer.execute(() -> {
+                    this.importRequested.set(false);
+                    this.LOGGER.info("Batch size protection has occurred.");
+                    this.importData();
+                });
+            } catch (RejectedExecutionException e) {
+                // The writer is stopped, the final import takes the rest.
+                this.importRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Opens the spool of the client in the subdirectory of the directory set in the settings, if it is set.
+     */
+    private void openSpool() {
+
+        String spoolDirectory = this.influxDBConfig.getInfluxdbSpoolDirectory();
+        if (spoolDirectory == null || spoolDirectory.isEmpty()) {
+            return;
+        }
+
+        // Each client has its own spool, the directory name is the same for the key in each run, so the next test replays it.
+        Path spoolPath = Paths.get(spoolDirectory).resolve(UUID.nameUUIDFromBytes(this.key.getBytes(StandardCharsets.UTF_8)).toString());
+        try {
+            this.spool = new WriteAheadSpool(spoolPath, this.influxDBConfig.getInfluxdbSpoolMaxSize() * 1024L * 1024L, this.LOGGER);
+            this.LOGGER.info("Spool --> " + spoolPath);
+        } catch (IOException | RuntimeException e) {
+            this.LOGGER.error("Failed to open the spool " + spoolPath + ", the failed batches are not going to be kept", e);
+        }
+    }
+
+    /**
+     * Drains the points buffer by batches and hands them over to the write pool. The batch failed to import is retried first on the next import,
+     * or goes to the spool if it is enabled. While the spool has pending batches, the new batches are spooled as well to keep the order.
+     * Must be called under the import lock, so the buffer has the single consumer.
+     */
+    private void importBufferedData() {
+
+        int batchSize = this.batchController.getBatchSize();
+        this.batchController.onImport(this.points.size());
+        boolean thresholdReached = this.errorsAmount.get() >= this.influxDBConfig.getInfluxdbThresholdError();
+
+        if (thresholdReached && this.spool == null)
         {
-            this.points.clear();
+            this.failedBatches.clear();
+            List<String> discarded = new ArrayList<>(batchSize);
+            int discardedPoints;
+            while ((discardedPoints = this.points.drainTo(discarded, batchSize, Long.MAX_VALUE)) != 0) {
+                this.statistics.onPointsDropped(discardedPoints);
+                discarded.clear();
+            }
             this.LOGGER.warn("Importing of the results to Influx DB is skipping since "+this.influxDBConfig.getInfluxdbThresholdError()+" errors, has occurred!");
+            return;
         }
 
-        if (this.points.size() != 0 && this.errorsAmount.size() <= this.influxDBConfig.getInfluxdbThresholdError()) {
-            try {
+        // Retries the failed batches first.
+        List<String> failedBatch;
+        int failedBatchesToImport = this.failedBatches.size();
+        for (int i = 0; i < failedBatchesToImport && !this.closing && (failedBatch = this.failedBatches.poll()) != null; i++) {
+            this.dispatchBatch(failedBatch);
+        }
 
-                long start = System.currentTimeMillis();
-                this.writeApi.writePoints(this.points);
-                long end = System.currentTimeMillis();
+        // Limits the import by the points available at the start, so producers can not keep the flusher busy forever.
+        int batchesToImport = this.points.size() / batchSize + 1;
 
-                if (this.errorsAmount.size() != 0)
-                {
-                    this.errorsAmount.clear();
-                    this.LOGGER.warn("Counter of the errors refreshed since import was done successfully.");
-                 }
+        for (int i = 0; i < batchesToImport && !this.closing; i++) {
 
-                this.LOGGER.info("Data has been imported successfully, batch with size is --> " + this.points.size() + ", elapsed time is --> " + (end - start) + " ms");
+            List<String> batch = new ArrayList<>(batchSize);
+            if (this.points.drainTo(batch, batchSize, this.maxBatchBytes) == 0) {
+                break;
+            }
 
-                this.points.clear();
-                this.LOGGER.debug("Points have been cleaned");
+            if (this.spool != null && (thresholdReached || !this.spool.isEmpty())) {
+                this.spoolBatch(batch);
+            } else {
+                this.dispatchBatch(batch);
+            }
+        }
 
-            } catch (Exception e) {
+        // After the threshold each flush makes the single attempt to replay the spool.
+        if (this.spool != null) {
+            this.replaySpool();
+        }
+    }
 
-                this.LOGGER.error("Error has occurred, batch with size " + this.points.size() + " was not imported, see the details --> " + e.getMessage());
-                this.errorsAmount.add(1);
+    /**
+     * Writes the rest of the points when the client is closed: the batches in flight are finished first,
+     * then the failed batches and the buffered points are written by the chunks of the batch size, several chunks at the same time.
+     * The chunk failed to write is retried once if the time allows, the chunks not written by the deadline are abandoned.
+     * Logs the amount of the written, spooled and abandoned points, each chunk is counted once by the state it reached first:
+     * the chunk finished after the deadline is logged by itself. Must be called under the import lock.
+     *
+     * @param deadline the deadline by {@link System#nanoTime()}.
+     */
+    private void drainBeforeClosing(long deadline) {
+
+        long start = System.nanoTime();
+        this.stopWritePool(deadline);
+
+        int batchSize = this.batchController.getBatchSize();
+        boolean thresholdReached = this.errorsAmount.get() >= this.influxDBConfig.getInfluxdbThresholdError();
+        boolean spoolChunks = this.spool != null && (thresholdReached || !this.spool.isEmpty());
+        int parallelism = this.influxDBConfig.getInfluxdbCloseParallelism();
+
+        AtomicLong writtenPoints = new AtomicLong();
+        AtomicLong spooledPoints = new AtomicLong();
+        AtomicLong abandonedPoints = new AtomicLong();
+        Set<FinalFlushChunk> inFlightChunks = ConcurrentHashMap.newKeySet();
+        Semaphore slots = new Semaphore(parallelism);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService drainPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "influxdb-drain-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<String> chunk;
+        while ((chunk = this.pollChunk(batchSize)) != null || !this.finishFinalFlush()) {
+
+            if (chunk == null) {
+                // The batch failed in the write pool right before the end is taken by the next poll.
+                continue;
+            }
+
+            if (spoolChunks) {
+                if (this.spoolBatch(chunk)) {
+                    spooledPoints.addAndGet(chunk.size());
+                } else {
+                    abandonedPoints.addAndGet(chunk.size());
+                }
+                continue;
+            }
+
+            if (thresholdReached || !this.acquireSlot(slots, deadline)) {
+                // The rest of the chunks are counted without waiting.
+                abandonedPoints.addAndGet(chunk.size());
+                continue;
+            }
+
+            List<String> records = chunk;
+            FinalFlushChunk flushChunk = new FinalFlushChunk(records.size());
+            inFlightChunks.add(flushChunk);
+            drainPool.execute(() -> {
+                try {
+                    boolean written = this.writeBatch(records) || (deadline - System.nanoTime() > 0 && this.writeBatch(records));
+                    boolean spooled = !written && deadline - System.nanoTime() > 0 && this.spool != null && this.spoolBatch(records);
+
+                    if (!flushChunk.count(written ? writtenPoints : spooled ? spooledPoints : abandonedPoints)) {
+                        this.LOGGER.warn("The chunk with size " + records.size() + " has been " + (written ? "written" : spooled ? "spooled" : "abandoned")
+                                + " after the close timeout, the final flush counts it as abandoned.");
+                    }
+                } finally {
+                    inFlightChunks.remove(flushChunk);
+                    slots.release();
+                }
+            });
+        }
+
+        drainPool.shutdown();
+        try {
+            if (!drainPool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                // The writes still running are not waited for, their points are abandoned.
+                drainPool.shutdownNow();
+                for (FinalFlushChunk flushChunk : inFlightChunks) {
+                    flushChunk.count(abandonedPoints);
+                }
             }
+        } catch (InterruptedException e) {
+            this.LOGGER.error("Error waiting for end of the final flush " + e);
+            Thread.currentThread().interrupt();
+        }
+
+        String summary = "Final flush --> points written " + writtenPoints.get() + ", spooled " + spooledPoints.get()
+                + ", abandoned " + abandonedPoints.get() + ", elapsed time is --> " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms";
+        if (abandonedPoints.get() != 0) {
+            this.LOGGER.warn(summary);
+        } else {
+            this.LOGGER.info(summary);
         }
     }
 
     /**
-     * Creates the Influx DB client instance.
+     * Ends the final flush unless the write pool has failed one more batch, the batches failed after that are not kept.
+     *
+     * @return true if the final flush is ended; false if the failed batch is waiting.
      */
-    public synchronized void setupInfluxClient() {
+    private boolean finishFinalFlush() {
 
-        this.LOGGER.info("InfluxDBClientFactory is going to use the following properties:");
-        this.LOGGER.info("URL --> " + this.influxDBConfig.getInfluxDBURL());
-        this.LOGGER.info("Token --> " + this.influxDBConfig.getInfluxToken());
-        this.LOGGER.info("Organization --> " + this.influxDBConfig.getInfluxOrganization());
-        this.LOGGER.info("Bucket --> " + this.influxDBConfig.getInfluxBucket());
+        synchronized (this.failedBatches) {
+            this.finalFlushDone = this.failedBatches.isEmpty();
+            return this.finalFlushDone;
+        }
+    }
+
+    /**
+     * Takes the next chunk of the final flush: the failed batches first, then the buffered points.
+     *
+     * @param batchSize the max amount of the points in the chunk.
+     * @return the line protocol records; null if nothing left.
+     */
+    private List<String> pollChunk(int batchSize) {
+
+        List<String> chunk = this.failedBatches.poll();
+        if (chunk != null) {
+            return chunk;
+        }
+
+        chunk = new ArrayList<>(batchSize);
+        return this.points.drainTo(chunk, batchSize, this.maxBatchBytes) == 0 ? null : chunk;
+    }
+
+    /**
+     * Waits for the free slot of the final flush till the deadline.
+     *
+     * @param slots the slots of the chunks in flight.
+     * @param deadline the deadline by {@link System#nanoTime()}.
+     * @return true if the slot is acquired; false if the deadline has passed.
+     */
+    private boolean acquireSlot(Semaphore slots, long deadline) {
+
+        long timeout = deadline - System.nanoTime();
+        if (timeout <= 0) {
+            return false;
+        }
+
+        try {
+            return slots.tryAcquire(timeout, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Hands the batch over to the write pool, waits for the free slot if all the allowed batches are in flight.
+     *
+     * @param batch the line protocol records.
+     */
+    private void dispatchBatch(List<String> batch) {
+
+        try {
+            this.inFlightBatches.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failedBatches.add(batch);
+            return;
+        }
+
+        try {
+            this.writePool.execute(() -> {
+                try {
+                    if (!this.writeBatch(batch)) {
+                        this.onBatchFailed(batch);
+                    }
+                } finally {
+                    this.inFlightBatches.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.inFlightBatches.release();
+            this.failedBatches.add(batch);
+        }
+    }
+
+    /**
+     * Keeps the failed batch: in the spool if it is enabled, otherwise to retry on the next import.
+     *
+     * @param batch the line protocol records.
+     */
+    private void onBatchFailed(List<String> batch) {
+
+        synchronized (this.failedBatches) {
+            if (this.finalFlushDone) {
+                // The write finished after the close timeout, nothing takes the batch anymore.
+                this.statistics.onPointsDropped(batch.size());
+                this.LOGGER.warn("Batch with size " + batch.size() + " failed after the final flush, the points are abandoned.");
+            } else if (this.spool != null) {
+                this.spoolBatch(batch);
+            } else {
+                this.failedBatches.add(batch);
+            }
+        }
+    }
+
+    /**
+     * Moves the batch to the spool, counts the points as dropped if the spool is full.
+     *
+     * @param batch the line protocol records.
+     * @return true if the batch has been spooled; false if it has been dropped.
+     */
+    private boolean spoolBatch(List<String> batch) {
+
+        if (!this.spool.append(batch)) {
+            this.droppedPoints.addAndGet(batch.size());
+            this.statistics.onPointsDropped(batch.size());
+            this.LOGGER.warn("The spool is full, batch with size " + batch.size() + " was dropped.");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes the spooled batches in order till the first failure.
+     */
+    private void replaySpool() {
+
+        List<String> records;
+        while (!this.closing && (records = this.spool.peek()) != null) {
+
+            if (!this.writeBatch(records)) {
+                return;
+            }
+
+            this.spool.acknowledge();
+            this.LOGGER.info("Spooled batch has been replayed, batches left in the spool --> " + this.spool.getPendingBatches());
+        }
+    }
+
+    /**
+     * Writes the batch of the line protocol records.
+     *
+     * @param records the line protocol records.
+     * @return true if the batch has been imported; otherwise false.
+     */
+    private boolean writeBatch(List<String> records) {
 
         try {
-            this.influxDB = InfluxDBClientFactory.
-                    create(this.influxDBConfig.getInfluxDBURL(),
-                            this.influxDBConfig.getInfluxToken().toCharArray(),
-                            this.influxDBConfig.getInfluxOrganization(),
-                            this.influxDBConfig.getInfluxBucket());
 
-            this.influxDB.enableGzip();
-            this.writeApi = this.influxDB.getWriteApiBlocking();
+            long start = System.currentTimeMillis();
+            this.transport.write(records);
+            long end = System.currentTimeMillis();
+
+            long bytes = 0;
+            for (String record : records) {
+                bytes += RecordBuffer.RECORD_BYTES.applyAsLong(record);
+            }
+            this.statistics.onBatchWritten(records.size(), bytes, end - start);
+            this.batchController.onBatchWritten(records.size(), end - start);
+
+            if (this.errorsAmount.getAndSet(0) != 0)
+            {
+                this.LOGGER.warn("Counter of the errors refreshed since import was done successfully.");
+            }
+
+            this.LOGGER.info("Data has been imported successfully, batch with size is --> " + records.size() + ", elapsed time is --> " + (end - start) + " ms");
+            return true;
 
         } catch (Exception e) {
-            this.LOGGER.error("Failed to create client", e);
+
+            this.LOGGER.error("Error has occurred, batch with size " + records.size() + " was not imported, see the details --> " + e.getMessage());
+            this.errorsAmount.incrementAndGet();
+            this.statistics.onBatchFailed();
+            this.batchController.onBatchFailed();
+            return false;
         }
     }
 
     /**
-     * Checks batch size, makes import when limit is reached.
+     * The tags of the listener statistics point.
      */
-    private synchronized void checkBatchSize()
-    {
-        if (this.points.size() >= this.influxDBConfig.getInfluxdbBatchSize()) {
+    private static final class StatisticsTags {
+
+        private final String nodeName;
+        private final String runId;
+        private final String testName;
+
+        /**
+         * Creates the new instance of the {@link StatisticsTags}.
+         *
+         * @param nodeName the node name.
+         * @param runId the run id.
+         * @param testName the test name.
+         */
+        StatisticsTags(String nodeName, String runId, String testName) {
+
+            this.nodeName = nodeName;
+            this.runId = runId;
+            this.testName = testName;
+        }
+    }
+
+    /**
+     * The chunk of the final flush, counted once by the state it reaches first.
+     */
+    private static final class FinalFlushChunk {
+
+        private final int size;
+        private boolean counted;
+
+        /**
+         * Creates the new instance of the {@link FinalFlushChunk}.
+         *
+         * @param size the amount of the points.
+         */
+        FinalFlushChunk(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Counts the points of the chunk unless it is counted already.
+         *
+         * @param counter the counter of the reached state.
+         * @return true if the chunk has been counted; false if it was counted before.
+         */
+        synchronized boolean count(AtomicLong counter) {
+
+            if (this.counted) {
+                return false;
+            }
 
-            this.LOGGER.info("Batch size protection has occurred.");
-            this.importData();
+            this.counted = true;
+            counter.addAndGet(this.size);
+            return true;
         }
     }
 }
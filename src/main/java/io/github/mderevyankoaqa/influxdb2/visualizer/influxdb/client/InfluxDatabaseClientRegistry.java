@@ -0,0 +1,193 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.TransportType;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The registry of the {@link InfluxDatabaseClient} per endpoint, organization and bucket.
+ * The listeners writing to the same place share the client with its buffer and writer thread,
+ * the listeners writing to the different buckets or databases get their own clients and never wait for each other.
+ * The client is created by the first listener and closed by the last one.
+ * The registry has no global lock, and the client is set up and closed outside the map operations, so the other keys never wait for the network.
+ * The entry keeps the amount of its users; the next client of the key is created once the closing one is closed, so the spool is never opened twice.
+ *
+ * @author Michael Derevyanko
+ */
+public final class InfluxDatabaseClientRegistry {
+
+    private static final Map<String, Entry> CLIENTS = new ConcurrentHashMap<>();
+
+    private InfluxDatabaseClientRegistry() {
+    }
+
+    /**
+     * Gets the client of the config, creates and starts it if the config is the first one with such endpoint, organization and bucket.
+     * Each call must be followed by the {@link #release(InfluxDatabaseClient)} when the client is not needed anymore.
+     *
+     * @param config {@link InfluxDBConfig}
+     * @param logger {@link Logger}
+     * @return the {@link InfluxDatabaseClient}.
+     */
+    public static InfluxDatabaseClient acquire(InfluxDBConfig config, Logger logger) {
+
+        String key = getKey(config);
+        while (true) {
+            Entry entry = CLIENTS.computeIfAbsent(key, newKey -> new Entry(new InfluxDatabaseClient(config, newKey, logger)));
+            if (!entry.retain()) {
+                // The last user is closing the client, the new one is created after that.
+                await(entry.closed);
+                continue;
+            }
+
+            if (entry.start()) {
+                try {
+                    entry.client.setupInfluxClient();
+                } finally {
+                    entry.setUp.countDown();
+                }
+            } else {
+                logger.info("The InfluxDatabaseClient of " + key + " is shared, the settings of the first listener are used.");
+                await(entry.setUp);
+            }
+
+            return entry.client;
+        }
+    }
+
+    /**
+     * Releases the client, closes it when no one else uses it: the buffered points are written before closing.
+     *
+     * @param client the {@link InfluxDatabaseClient} got by the {@link #acquire(InfluxDBConfig, Logger)}.
+     */
+    public static void release(InfluxDatabaseClient client) {
+
+        Entry entry = CLIENTS.get(client.getKey());
+        if (entry == null || entry.client != client || !entry.releaseLast()) {
+            return;
+        }
+
+        // The closing entry stays in the registry till the client is closed, so the next client of the key does not open the same spool before.
+        try {
+            client.close();
+        } finally {
+            CLIENTS.remove(client.getKey(), entry);
+            entry.closed.countDown();
+        }
+    }
+
+    /**
+     * Gets the key of the client: the endpoint the data is written to, the organization and the bucket.
+     *
+     * @param config {@link InfluxDBConfig}
+     * @return the key.
+     */
+    static String getKey(InfluxDBConfig config) {
+
+        String endpoint;
+        if (!config.getInfluxdbRelayAddress().isEmpty()) {
+            endpoint = "relay://" + config.getInfluxdbRelayAddress();
+        } else if (config.getInfluxdbTransport() == TransportType.FILE) {
+            endpoint = "file://" + config.getInfluxdbCaptureDirectory();
+        } else if (config.getInfluxdbTransport() == TransportType.HTTP) {
+            endpoint = config.getInfluxDBURL();
+        } else {
+            endpoint = config.getInfluxdbTransport() + "://" + config.getInfluxdbSocketAddress();
+        }
+
+        return endpoint + ", organization " + config.getInfluxOrganization() + ", bucket " + config.getInfluxBucket();
+    }
+
+    /**
+     * Waits for the latch, the interruption is restored after the wait.
+     *
+     * @param latch the latch.
+     */
+    private static void await(CountDownLatch latch) {
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The client and the amount of its users.
+     */
+    private static final class Entry {
+
+        private final InfluxDatabaseClient client;
+        private final CountDownLatch setUp;
+        private final CountDownLatch closed;
+        private int references;
+        private boolean started;
+        private boolean closing;
+
+        /**
+         * Creates the new instance of the {@link Entry}.
+         *
+         * @param client the {@link InfluxDatabaseClient}.
+         */
+        Entry(InfluxDatabaseClient client) {
+
+            this.client = client;
+            this.setUp = new CountDownLatch(1);
+            this.closed = new CountDownLatch(1);
+        }
+
+        /**
+         * Adds the user of the client.
+         *
+         * @return true if the user is added; false if the client is closing.
+         */
+        synchronized boolean retain() {
+
+            if (this.closing) {
+                return false;
+            }
+
+            this.references++;
+            return true;
+        }
+
+        /**
+         * Checks whether the caller is the first user, who sets the client up.
+         *
+         * @return true for the first call; otherwise false.
+         */
+        synchronized boolean start() {
+
+            boolean first = !this.started;
+            this.started = true;
+            return first;
+        }
+
+        /**
+         * Removes the user of the client, the client is closing once the last user is removed.
+         *
+         * @return true if the user was the last one; false otherwise or if the client is closing already.
+         */
+        synchronized boolean releaseLast() {
+
+            if (this.closing || --this.references > 0) {
+                return false;
+            }
+
+            this.closing = true;
+            return true;
+        }
+    }
+}
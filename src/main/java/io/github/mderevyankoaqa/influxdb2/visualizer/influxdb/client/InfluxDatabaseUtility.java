@@ -1,5 +1,7 @@
 package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
 
+import java.net.InetSocketAddress;
+
 /**
  * The utility to escape values before inserting.
  * @author Michael Derevyanko
@@ -37,4 +39,109 @@ public class InfluxDatabaseUtility {
 
         return newValue;
     }
-}
+
+    /**
+     * Parses the host:port address.
+     * @param address the address.
+     * @param key the key of the setting, for the error message.
+     * @return the {@link InetSocketAddress}, not resolved yet.
+     * @throws IllegalArgumentException when the address is not host:port.
+     */
+    public static InetSocketAddress parseSocketAddress(String address, String key) throws IllegalArgumentException
+    {
+        int separator = address.lastIndexOf(':');
+        if (separator <= 0 || separator == address.length() - 1) {
+            throw new IllegalArgumentException("Expecting host:port as " + key + ", but you set " + address);
+        }
+
+        try {
+            return InetSocketAddress.createUnresolved(address.substring(0, separator).trim(), Integer.parseInt(address.substring(separator + 1).trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Expecting host:port as " + key + ", but you set " + address, e);
+        }
+    }
+
+    /**
+     * Appends the measurement name escaped by the line protocol rules.
+     * @param builder the line protocol builder.
+     * @param measurement the measurement name.
+     */
+    public static void appendEscapedMeasurement(StringBuilder builder, String measurement)
+    {
+        appendEscapedKey(builder, measurement, false);
+    }
+
+    /**
+     * Appends the tag key or tag value escaped by the line protocol rules.
+     * @param builder the line protocol builder.
+     * @param value the tag key or value.
+     */
+    public static void appendEscapedTag(StringBuilder builder, String value)
+    {
+        appendEscapedKey(builder, value, true);
+    }
+
+    /**
+     * Appends the string field value escaped by the line protocol rules, without the quotes.
+     * The line breaks are escaped as well, so the record stays on the one line for the relay and the bulk loader.
+     * @param builder the line protocol builder.
+     * @param value the field value.
+     */
+    public static void appendEscapedFieldValue(StringBuilder builder, String value)
+    {
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            switch (symbol) {
+                case '\n':
+                    builder.append("\\n");
+                    continue;
+                case '\r':
+                    builder.append("\\r");
+                    continue;
+                case '\\':
+                case '"':
+                    builder.append('\\');
+                    break;
+                default:
+                    break;
+            }
+            builder.append(symbol);
+        }
+    }
+
+    /**
+     * Appends the key escaped in the same way as {@link com.influxdb.client.write.Point} does.
+     * @param builder the line protocol builder.
+     * @param value the key.
+     * @param escapeEqual set to true to escape the equal sign; otherwise false.
+     */
+    private static void appendEscapedKey(StringBuilder builder, String value, boolean escapeEqual)
+    {
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            switch (symbol) {
+                case '\n':
+                    builder.append("\\n");
+                    continue;
+                case '\r':
+                    builder.append("\\r");
+                    continue;
+                case '\t':
+                    builder.append("\\t");
+                    continue;
+                case ' ':
+                case ',':
+                    builder.append('\\');
+                    break;
+                case '=':
+                    if (escapeEqual) {
+                        builder.append('\\');
+                    }
+                    break;
+                default:
+                    break;
+            }
+            builder.append(symbol);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The request body streaming the batch of the line protocol records: the records are encoded to UTF-8 chunk by chunk
+ * and compressed to gzip while the request is written, so the batch is never materialized as the single string or byte array.
+ * The chunks and the {@link Deflater} are pooled per thread of the write pool.
+ * The level 0 writes the records without the compression.
+ * The body may be written more than once on the retry or the redirect, it keeps the bytes of the last write only.
+ * @author Michael Derevyanko
+ */
+final class LineProtocolRequestBody extends RequestBody {
+
+    private static final MediaType CONTENT_TYPE = MediaType.get("text/plain; charset=utf-8");
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    /**
+     * The bytes enough for any char encoded to UTF-8 (4 for the surrogate pair) and the line feed.
+     */
+    private static final int MAX_CHAR_BYTES = 5;
+
+    private static final ThreadLocal<byte[]> ENCODED_CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+    private static final ThreadLocal<byte[]> COMPRESSED_CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    /**
+     * The gzip header: the magic, the deflate method, no flags, no time, no extra flags, the unknown OS.
+     */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final List<String> records;
+    private final int compressionLevel;
+    private volatile long uncompressedBytes;
+    private volatile long writtenBytes;
+
+    /**
+     * Creates the new instance of the {@link LineProtocolRequestBody}.
+     * @param records the line protocol records.
+     * @param compressionLevel the gzip level from 1 to 9, 0 to write the records without the compression.
+     */
+    LineProtocolRequestBody(List<String> records, int compressionLevel) {
+
+        this.records = records;
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public long contentLength() {
+        // The body is streamed, so the length is not known.
+        return -1;
+    }
+
+    /**
+     * Checks whether the body is compressed.
+     * @return true if the body is gzip; otherwise false.
+     */
+    boolean isCompressed() {
+        return this.compressionLevel > 0;
+    }
+
+    /**
+     * Gets the size of the records before the compression, written by the last {@link #writeTo(BufferedSink)}.
+     * @return the amount of the bytes.
+     */
+    long getUncompressedBytes() {
+        return this.uncompressedBytes;
+    }
+
+    /**
+     * Gets the size of the body, written by the last {@link #writeTo(BufferedSink)}.
+     * @return the amount of the bytes.
+     */
+    long getWrittenBytes() {
+        return this.writtenBytes;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+
+        Deflater deflater = null;
+        CRC32 crc = null;
+        if (this.isCompressed()) {
+            deflater = DEFLATER.get();
+            deflater.reset();
+            deflater.setLevel(this.compressionLevel);
+            crc = new CRC32();
+            sink.write(GZIP_HEADER);
+        }
+
+        byte[] chunk = ENCODED_CHUNK.get();
+        byte[] compressed = COMPRESSED_CHUNK.get();
+        long uncompressedBytes = 0;
+        long writtenBytes = 0;
+        int position = 0;
+
+        for (String record : this.records) {
+            for (int i = 0; i < record.length(); i++) {
+
+                if (position > chunk.length - MAX_CHAR_BYTES) {
+                    writtenBytes += this.writeChunk(sink, chunk, position, deflater, crc, compressed);
+                    uncompressedBytes += position;
+                    position = 0;
+                }
+
+                char symbol = record.charAt(i);
+                if (symbol < 0x80) {
+                    chunk[position++] = (byte) symbol;
+                } else if (symbol < 0x800) {
+                    chunk[position++] = (byte) (0xc0 | (symbol >> 6));
+                    chunk[position++] = (byte) (0x80 | (symbol & 0x3f));
+                } else if (Character.isHighSurrogate(symbol) && i + 1 < record.length() && Character.isLowSurrogate(record.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(symbol, record.charAt(++i));
+                    chunk[position++] = (byte) (0xf0 | (codePoint >> 18));
+                    chunk[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    chunk[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    chunk[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(symbol)) {
+                    // The broken surrogate pair is replaced as String.getBytes does.
+                    chunk[position++] = '?';
+                } else {
+                    chunk[position++] = (byte) (0xe0 | (symbol >> 12));
+                    chunk[position++] = (byte) (0x80 | ((symbol >> 6) & 0x3f));
+                    chunk[position++] = (byte) (0x80 | (symbol & 0x3f));
+                }
+            }
+
+            if (position > chunk.length - MAX_CHAR_BYTES) {
+                writtenBytes += this.writeChunk(sink, chunk, position, deflater, crc, compressed);
+                uncompressedBytes += position;
+                position = 0;
+            }
+            chunk[position++] = '\n';
+        }
+
+        writtenBytes += this.writeChunk(sink, chunk, position, deflater, crc, compressed);
+        uncompressedBytes += position;
+
+        if (deflater != null) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                int length = deflater.deflate(compressed);
+                sink.write(compressed, 0, length);
+                writtenBytes += length;
+            }
+
+            // The gzip trailer: CRC32 and the uncompressed size, little-endian.
+            sink.writeIntLe((int) crc.getValue());
+            sink.writeIntLe((int) uncompressedBytes);
+            writtenBytes += GZIP_HEADER.length + 8;
+        }
+
+        this.uncompressedBytes = uncompressedBytes;
+        this.writtenBytes = writtenBytes;
+    }
+
+    /**
+     * Writes the encoded chunk to the sink, compresses it if needed.
+     * @param sink the sink of the request.
+     * @param chunk the encoded chunk.
+     * @param length the length of the encoded data in the chunk.
+     * @param deflater the {@link Deflater}, null to write the chunk as it is.
+     * @param crc the checksum of the uncompressed data.
+     * @param compressed the buffer of the compressed data.
+     * @return the amount of the bytes written to the sink.
+     * @throws IOException when the sink is broken.
+     */
+    private long writeChunk(BufferedSink sink, byte[] chunk, int length, Deflater deflater, CRC32 crc, byte[] compressed) throws IOException {
+
+        if (length == 0) {
+            return 0;
+        }
+
+        if (deflater == null) {
+            sink.write(chunk, 0, length);
+            return length;
+        }
+
+        crc.update(chunk, 0, length);
+        deflater.setInput(chunk, 0, length);
+
+        long written = 0;
+        while (!deflater.needsInput()) {
+            int compressedLength = deflater.deflate(compressed);
+            sink.write(compressed, 0, compressedLength);
+            written += compressedLength;
+        }
+
+        return written;
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The transport writing the batches of the line protocol records, is used by the write pool of the {@link InfluxDatabaseClient}.
+ * The implementations must be thread safe, the batches in flight are written at the same time.
+ * @author Michael Derevyanko
+ */
+public interface LineProtocolTransport extends Closeable {
+
+    /**
+     * Writes the batch.
+     * @param records the line protocol records with the nanoseconds precision.
+     * @throws IOException when the batch is not written and must be retried.
+     */
+    void write(List<String> records) throws IOException;
+
+    /**
+     * Closes the transport, the batches are not written anymore.
+     */
+    @Override
+    void close();
+}
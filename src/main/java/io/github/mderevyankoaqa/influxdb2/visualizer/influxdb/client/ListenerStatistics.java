@@ -0,0 +1,212 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ListenerStatsMeasurement;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The self-monitoring statistics of the listener: what was put to the buffer, written, dropped, and how long it took.
+ * The counters are striped, so the producers and the write pool threads do not contend on them;
+ * the point must be taken by the single reader thread, the counters are reset each time.
+ * @author Michael Derevyanko
+ */
+public class ListenerStatistics {
+
+    /**
+     * The precision of the write latency histogram, 2 digits keeps the values with 1% accuracy.
+     */
+    private static final int HISTOGRAM_SIGNIFICANT_DIGITS = 2;
+
+    private final LongAdder pointsEnqueued;
+    private final LongAdder pointsWritten;
+    private final LongAdder pointsDropped;
+    private final LongAdder pointsShed;
+    private final LongAdder producerBlockedNanos;
+    private final LongAdder batchesWritten;
+    private final LongAdder batchesFailed;
+    private final LongAccumulator batchSizeMax;
+    private final LongAdder serializedBytes;
+    private final LongAdder uncompressedBytes;
+    private final LongAdder compressedBytes;
+    private final LongAdder packetsSent;
+    private final LongAdder packetsDropped;
+    private final LongAdder handleSampleResultsNanos;
+    private final LongAdder handledSamples;
+    private final Recorder writeLatencyRecorder;
+
+    private Histogram writeLatencyHistogram;
+
+    /**
+     * Creates the new instance of the {@link ListenerStatistics}.
+     */
+    public ListenerStatistics() {
+
+        this.pointsEnqueued = new LongAdder();
+        this.pointsWritten = new LongAdder();
+        this.pointsDropped = new LongAdder();
+        this.pointsShed = new LongAdder();
+        this.producerBlockedNanos = new LongAdder();
+        this.batchesWritten = new LongAdder();
+        this.batchesFailed = new LongAdder();
+        this.batchSizeMax = new LongAccumulator(Math::max, 0);
+        this.serializedBytes = new LongAdder();
+        this.uncompressedBytes = new LongAdder();
+        this.compressedBytes = new LongAdder();
+        this.packetsSent = new LongAdder();
+        this.packetsDropped = new LongAdder();
+        this.handleSampleResultsNanos = new LongAdder();
+        this.handledSamples = new LongAdder();
+        this.writeLatencyRecorder = new Recorder(HISTOGRAM_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Counts the point put to the buffer.
+     */
+    public void onPointEnqueued() {
+        this.pointsEnqueued.increment();
+    }
+
+    /**
+     * Counts the dropped points.
+     * @param amount the amount of the points.
+     */
+    public void onPointsDropped(long amount) {
+        this.pointsDropped.add(amount);
+    }
+
+    /**
+     * Counts the points shed by the overflow policy of the buffer.
+     * @param amount the amount of the points.
+     */
+    public void onPointsShed(long amount) {
+        this.pointsShed.add(amount);
+    }
+
+    /**
+     * Counts the time the producer waited for the free space in the buffer.
+     * @param elapsedNanos the elapsed time in nanoseconds.
+     */
+    public void onProducerBlocked(long elapsedNanos) {
+        this.producerBlockedNanos.add(elapsedNanos);
+    }
+
+    /**
+     * Counts the batch imported to the database.
+     * @param batchSize the amount of the points in the batch.
+     * @param bytes the serialized size of the batch.
+     * @param latencyInMs the time of the import in ms.
+     */
+    public void onBatchWritten(int batchSize, long bytes, long latencyInMs) {
+
+        this.pointsWritten.add(batchSize);
+        this.batchesWritten.increment();
+        this.batchSizeMax.accumulate(batchSize);
+        this.serializedBytes.add(bytes);
+        this.writeLatencyRecorder.recordValue(Math.max(0, latencyInMs));
+    }
+
+    /**
+     * Counts the batch failed to import.
+     */
+    public void onBatchFailed() {
+        this.batchesFailed.increment();
+    }
+
+    /**
+     * Counts the body of the batch written successfully, once per batch.
+     * @param uncompressedBytes the size of the body before the compression.
+     * @param compressedBytes the size of the body sent.
+     */
+    public void onBatchCompressed(long uncompressedBytes, long compressedBytes) {
+
+        this.uncompressedBytes.add(uncompressedBytes);
+        this.compressedBytes.add(compressedBytes);
+    }
+
+    /**
+     * Counts the packets sent by the UDP or TCP transport: the datagrams or the batches flushed to the connection.
+     * @param amount the amount of the packets.
+     */
+    public void onPacketsSent(long amount) {
+        this.packetsSent.add(amount);
+    }
+
+    /**
+     * Counts the packets the UDP or TCP transport failed to send.
+     * @param amount the amount of the packets.
+     */
+    public void onPacketsDropped(long amount) {
+        this.packetsDropped.add(amount);
+    }
+
+    /**
+     * Counts the time spent to handle the sample results.
+     * @param samples the amount of the handled samples.
+     * @param elapsedNanos the elapsed time in nanoseconds.
+     */
+    public void onSampleResultsHandled(int samples, long elapsedNanos) {
+
+        this.handledSamples.add(samples);
+        this.handleSampleResultsNanos.add(elapsedNanos);
+    }
+
+    /**
+     * Gets the {@link ListenerStatsMeasurement} point with the values collected since the previous call, resets the counters.
+     * @param nodeName the node name.
+     * @param runId the run id.
+     * @param testName the test name.
+     * @param bufferDepth the amount of the points in the buffer.
+     * @param bufferBytes the estimated size of the points in the buffer.
+     * @param errorStreak the amount of the errors occurred one by one.
+     * @param batchSizeLimit the current batch size limit.
+     * @param flushInterval the current flush interval in ms.
+     * @param timeInMs the time of the point in ms.
+     * @return the {@link Point}.
+     */
+    public Point getPoint(String nodeName, String runId, String testName, int bufferDepth, long bufferBytes, int errorStreak,
+                          int batchSizeLimit, int flushInterval, long timeInMs) {
+
+        long batches = this.batchesWritten.sumThenReset();
+        long written = this.pointsWritten.sumThenReset();
+
+        // The previous interval histogram is recycled.
+        this.writeLatencyHistogram = this.writeLatencyRecorder.getIntervalHistogram(this.writeLatencyHistogram);
+
+        return Point.measurement(ListenerStatsMeasurement.MEASUREMENT_NAME).time(timeInMs, WritePrecision.MS)
+                .addTag(ListenerStatsMeasurement.Tags.NODE_NAME, nodeName)
+                .addTag(ListenerStatsMeasurement.Tags.RUN_ID, runId)
+                .addTag(ListenerStatsMeasurement.Tags.TEST_NAME, testName)
+                .addField(ListenerStatsMeasurement.Fields.POINTS_ENQUEUED, this.pointsEnqueued.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.POINTS_WRITTEN, written)
+                .addField(ListenerStatsMeasurement.Fields.POINTS_DROPPED, this.pointsDropped.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.POINTS_SHED, this.pointsShed.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.BUFFER_DEPTH, bufferDepth)
+                .addField(ListenerStatsMeasurement.Fields.BUFFER_BYTES, bufferBytes)
+                .addField(ListenerStatsMeasurement.Fields.PRODUCER_BLOCKED_TIME, TimeUnit.NANOSECONDS.toMillis(this.producerBlockedNanos.sumThenReset()))
+                .addField(ListenerStatsMeasurement.Fields.BATCHES_WRITTEN, batches)
+                .addField(ListenerStatsMeasurement.Fields.BATCHES_FAILED, this.batchesFailed.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.BATCH_SIZE_MAX, this.batchSizeMax.getThenReset())
+                .addField(ListenerStatsMeasurement.Fields.BATCH_SIZE_MEAN, batches == 0 ? 0 : (double) written / batches)
+                .addField(ListenerStatsMeasurement.Fields.BATCH_SIZE_LIMIT, batchSizeLimit)
+                .addField(ListenerStatsMeasurement.Fields.FLUSH_INTERVAL, flushInterval)
+                .addField(ListenerStatsMeasurement.Fields.WRITE_LATENCY_MEAN, this.writeLatencyHistogram.getMean())
+                .addField(ListenerStatsMeasurement.Fields.WRITE_LATENCY_P50, this.writeLatencyHistogram.getValueAtPercentile(50))
+                .addField(ListenerStatsMeasurement.Fields.WRITE_LATENCY_P95, this.writeLatencyHistogram.getValueAtPercentile(95))
+                .addField(ListenerStatsMeasurement.Fields.WRITE_LATENCY_P99, this.writeLatencyHistogram.getValueAtPercentile(99))
+                .addField(ListenerStatsMeasurement.Fields.WRITE_LATENCY_MAX, this.writeLatencyHistogram.getMaxValue())
+                .addField(ListenerStatsMeasurement.Fields.SERIALIZED_BYTES, this.serializedBytes.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.UNCOMPRESSED_BYTES, this.uncompressedBytes.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.COMPRESSED_BYTES, this.compressedBytes.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.PACKETS_SENT, this.packetsSent.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.PACKETS_DROPPED, this.packetsDropped.sumThenReset())
+                .addField(ListenerStatsMeasurement.Fields.ERROR_STREAK, errorStreak)
+                .addField(ListenerStatsMeasurement.Fields.HANDLE_SAMPLE_RESULTS_TIME, TimeUnit.NANOSECONDS.toMillis(this.handleSampleResultsNanos.sumThenReset()))
+                .addField(ListenerStatsMeasurement.Fields.HANDLED_SAMPLES, this.handledSamples.sumThenReset());
+    }
+}
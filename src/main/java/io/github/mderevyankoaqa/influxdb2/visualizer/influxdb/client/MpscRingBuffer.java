@@ -0,0 +1,184 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * The lock-free bounded multi-producer/single-consumer ring buffer.
+ * Producers claim a slot with a single CAS on the producer index and never wait for the consumer;
+ * the consumer drains the published items in bulk. Only one thread at a time may call the draining methods.
+ *
+ * @param <E> the type of the items.
+ * @author Michael Derevyanko
+ */
+public class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> items;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong producerIndex;
+    private final AtomicLong consumerIndex;
+
+    /**
+     * Creates the new instance of the {@link MpscRingBuffer}.
+     *
+     * @param requestedCapacity the requested capacity, is rounded up to the next power of two.
+     */
+    public MpscRingBuffer(int requestedCapacity) {
+
+        if (requestedCapacity <= 0) {
+            throw new IllegalArgumentException("Expecting a positive capacity, but you set " + requestedCapacity);
+        }
+
+        this.capacity = roundToPowerOfTwo(requestedCapacity);
+        this.mask = this.capacity - 1;
+        this.items = new AtomicReferenceArray<>(this.capacity);
+        this.producerIndex = new AtomicLong();
+        this.consumerIndex = new AtomicLong();
+    }
+
+    /**
+     * Adds the item to the buffer. Can be called from any thread.
+     *
+     * @param item the item to add, can not be null.
+     * @return true if the item has been added; false if the buffer is full.
+     */
+    public boolean offer(E item) {
+
+        if (item == null) {
+            throw new NullPointerException("Null items are not supported.");
+        }
+
+        long index;
+        do {
+            index = this.producerIndex.get();
+            if (index - this.consumerIndex.get() >= this.capacity) {
+                return false;
+            }
+        } while (!this.producerIndex.compareAndSet(index, index + 1));
+
+        // The slot is claimed; publishing makes it visible to the consumer.
+        this.items.lazySet(this.offset(index), item);
+        return true;
+    }
+
+    /**
+     * Takes the oldest published item. Must be called by the single consumer only.
+     *
+     * @return the item; null if the buffer is empty or the oldest item is not published yet.
+     */
+    public E poll() {
+
+        long index = this.consumerIndex.get();
+        int offset = this.offset(index);
+        E item = this.items.get(offset);
+        if (item == null) {
+            return null;
+        }
+
+        this.items.lazySet(offset, null);
+        this.consumerIndex.lazySet(index + 1);
+        return item;
+    }
+
+    /**
+     * Moves the published items to the target collection. Must be called by the single consumer only.
+     * Stops on the first claimed but not yet published slot, such item will be taken by the next drain.
+     *
+     * @param target the collection to fill.
+     * @param limit the max amount of the items to move.
+     * @return the amount of the moved items.
+     */
+    public int drainTo(Collection<? super E> target, int limit) {
+        return this.drainTo(target, limit, item -> 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Moves the published items to the target collection till the limit of the items or of their total weight is reached.
+     * Must be called by the single consumer only. At least one item is moved, even if it is heavier than the limit.
+     *
+     * @param target the collection to fill.
+     * @param limit the max amount of the items to move.
+     * @param weigher the function calculating the weight of the item.
+     * @param maxWeight the max total weight of the moved items.
+     * @return the amount of the moved items.
+     */
+    public int drainTo(Collection<? super E> target, int limit, ToLongFunction<? super E> weigher, long maxWeight) {
+
+        long index = this.consumerIndex.get();
+        int drained = 0;
+        long weight = 0;
+
+        while (drained < limit && weight < maxWeight) {
+            int offset = this.offset(index);
+            E item = this.items.get(offset);
+            if (item == null) {
+                break;
+            }
+
+            weight += weigher.applyAsLong(item);
+            if (weight > maxWeight && drained != 0) {
+                break;
+            }
+
+            this.items.lazySet(offset, null);
+            target.add(item);
+            index++;
+            drained++;
+        }
+
+        // Frees the slots for the producers.
+        this.consumerIndex.lazySet(index);
+        return drained;
+    }
+
+    /**
+     * Gets the approximate amount of the items in the buffer.
+     *
+     * @return the amount of the items.
+     */
+    public int size() {
+        long size = this.producerIndex.get() - this.consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, this.capacity));
+    }
+
+    /**
+     * Checks whether the buffer is empty.
+     *
+     * @return true if nothing to drain; otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Gets the capacity of the buffer.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the offset in the array of the items.
+     *
+     * @param index the producer or consumer index.
+     * @return the offset.
+     */
+    private int offset(long index) {
+        return (int) index & this.mask;
+    }
+
+    /**
+     * Rounds the value to the next power of two.
+     *
+     * @param value the value.
+     * @return the power of two greater or equal to the value.
+     */
+    private static int roundToPowerOfTwo(int value) {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,305 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.OverflowPolicy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * The buffer of the line protocol records bounded by their estimated encoded size, on top of the {@link MpscRingBuffer}.
+ * When the records do not fit, the {@link OverflowPolicy} sheds the new record, sheds the oldest ones,
+ * or makes the producer wait for the consumer till the timeout. Each shed record is counted.
+ * The draining methods and the drop of the oldest records are serialized by the consumer lock,
+ * so the ring buffer keeps the single consumer.
+ *
+ * @author Michael Derevyanko
+ */
+public class RecordBuffer {
+
+    /**
+     * The size of the encoded record: one byte per char is close enough for the ASCII line protocol, plus the line feed.
+     */
+    public static final ToLongFunction<String> RECORD_BYTES = record -> record.length() + 1;
+
+    /**
+     * The size of the smallest expected record, sizes the ring buffer so the bytes limit is reached first.
+     */
+    private static final int MIN_RECORD_BYTES = 64;
+
+    /**
+     * The max amount of the slots of the ring buffer.
+     */
+    private static final int MAX_CAPACITY = 1 << 22;
+
+    private final MpscRingBuffer<String> records;
+    private final long maxBytes;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutNanos;
+    private final ListenerStatistics statistics;
+    private final AtomicLong bytes;
+    private final AtomicLong shedRecords;
+    private final AtomicInteger blockedProducers;
+    private final ReentrantLock consumerLock;
+    private final Object freeSpace;
+
+    /**
+     * Creates the new instance of the {@link RecordBuffer}.
+     *
+     * @param maxBytes the max estimated size of the records.
+     * @param minCapacity the min amount of the records the buffer can hold.
+     * @param policy the {@link OverflowPolicy}.
+     * @param blockTimeout the time to wait for the free space with the block policy, in milliseconds.
+     * @param statistics the {@link ListenerStatistics} to count the shed records.
+     */
+    public RecordBuffer(long maxBytes, int minCapacity, OverflowPolicy policy, long blockTimeout, ListenerStatistics statistics) {
+
+        this.records = new MpscRingBuffer<>((int) Math.max(minCapacity, Math.min(MAX_CAPACITY, maxBytes / MIN_RECORD_BYTES)));
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+        this.statistics = statistics;
+        this.bytes = new AtomicLong();
+        this.shedRecords = new AtomicLong();
+        this.blockedProducers = new AtomicInteger();
+        this.consumerLock = new ReentrantLock();
+        this.freeSpace = new Object();
+    }
+
+    /**
+     * Adds the record to the buffer, applies the overflow policy when it does not fit. Can be called from any thread.
+     *
+     * @param record the line protocol record.
+     * @param onFull called once before the producer waits with the block policy, to ask the consumer to drain the buffer.
+     * @return true if the record has been added; false if the record has been shed.
+     */
+    public boolean offer(String record, Runnable onFull) {
+
+        long size = RECORD_BYTES.applyAsLong(record);
+        if (this.tryOffer(record, size)) {
+            return true;
+        }
+
+        switch (this.policy) {
+            case DROP_OLDEST:
+                // Each dropped record frees the space till the record fits, the empty buffer takes any record.
+                while (this.shedOldest()) {
+                    if (this.tryOffer(record, size)) {
+                        return true;
+                    }
+                }
+                break;
+            case BLOCK:
+                onFull.run();
+                if (this.awaitOffer(record, size)) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+
+        this.onShed(1);
+        return false;
+    }
+
+    /**
+     * Adds the record to the buffer if it fits, never applies the overflow policy and never waits.
+     * Is used by the consumer thread, which can not wait for the free space it makes itself. The record not fitting is counted as shed.
+     *
+     * @param record the line protocol record.
+     * @return true if the record has been added; false if the record has been shed.
+     */
+    public boolean tryOffer(String record) {
+
+        if (this.tryOffer(record, RECORD_BYTES.applyAsLong(record))) {
+            return true;
+        }
+
+        this.onShed(1);
+        return false;
+    }
+
+    /**
+     * Moves the records to the target list till the limit of the records or of their size is reached, wakes up the blocked producers.
+     * At least one record is moved, even if it is heavier than the limit.
+     *
+     * @param target the list to fill.
+     * @param limit the max amount of the records to move.
+     * @param maxBatchBytes the max size of the moved records.
+     * @return the amount of the moved records.
+     */
+    public int drainTo(List<String> target, int limit, long maxBatchBytes) {
+
+        int start = target.size();
+        int drained;
+
+        this.consumerLock.lock();
+        try {
+            drained = this.records.drainTo(target, limit, RECORD_BYTES, maxBatchBytes);
+        } finally {
+            this.consumerLock.unlock();
+        }
+
+        if (drained != 0) {
+            long drainedBytes = 0;
+            for (int i = start; i < target.size(); i++) {
+                drainedBytes += RECORD_BYTES.applyAsLong(target.get(i));
+            }
+            this.release(drainedBytes);
+        }
+
+        return drained;
+    }
+
+    /**
+     * Gets the approximate amount of the records in the buffer.
+     *
+     * @return the amount of the records.
+     */
+    public int size() {
+        return this.records.size();
+    }
+
+    /**
+     * Gets the estimated size of the records in the buffer.
+     *
+     * @return the size in bytes.
+     */
+    public long getBytes() {
+        return this.bytes.get();
+    }
+
+    /**
+     * Gets the max estimated size of the records.
+     *
+     * @return the size in bytes.
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * Gets the overflow policy.
+     *
+     * @return the {@link OverflowPolicy}.
+     */
+    public OverflowPolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Gets the amount of the records shed since the buffer was created.
+     *
+     * @return the amount of the shed records.
+     */
+    public long getShedRecords() {
+        return this.shedRecords.get();
+    }
+
+    /**
+     * Reserves the size of the record and adds it to the ring buffer.
+     *
+     * @param record the line protocol record.
+     * @param size the estimated size of the record.
+     * @return true if the record has been added; otherwise false.
+     */
+    private boolean tryOffer(String record, long size) {
+
+        long reserved = this.bytes.addAndGet(size);
+
+        // The empty buffer takes any record, so the record heavier than the limit is not shed forever.
+        if ((reserved > this.maxBytes && reserved != size) || !this.records.offer(record)) {
+            this.bytes.addAndGet(-size);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits for the free space till the block timeout.
+     *
+     * @param record the line protocol record.
+     * @param size the estimated size of the record.
+     * @return true if the record has been added; false if the timeout has elapsed.
+     */
+    private boolean awaitOffer(String record, long size) {
+
+        long start = System.nanoTime();
+        long deadline = start + this.blockTimeoutNanos;
+        this.blockedProducers.incrementAndGet();
+
+        try {
+            synchronized (this.freeSpace) {
+                while (!this.tryOffer(record, size)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this.freeSpace, remaining);
+                }
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            this.blockedProducers.decrementAndGet();
+            this.statistics.onProducerBlocked(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Takes the oldest record out of the buffer and counts it as shed.
+     *
+     * @return true if the record has been shed; false if the buffer is empty.
+     */
+    private boolean shedOldest() {
+
+        this.consumerLock.lock();
+        try {
+            String oldest = this.records.poll();
+            if (oldest == null) {
+                return false;
+            }
+            this.bytes.addAndGet(-RECORD_BYTES.applyAsLong(oldest));
+        } finally {
+            this.consumerLock.unlock();
+        }
+
+        this.onShed(1);
+        return true;
+    }
+
+    /**
+     * Frees the size of the drained records, wakes up the blocked producers.
+     *
+     * @param drainedBytes the size of the drained records.
+     */
+    private void release(long drainedBytes) {
+
+        this.bytes.addAndGet(-drainedBytes);
+
+        // The producer increments the counter before it checks the space, so the wake up can not be missed.
+        if (this.blockedProducers.get() != 0) {
+            synchronized (this.freeSpace) {
+                this.freeSpace.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Counts the shed records.
+     *
+     * @param amount the amount of the records.
+     */
+    private void onShed(long amount) {
+
+        this.shedRecords.addAndGet(amount);
+        this.statistics.onPointsShed(amount);
+    }
+}
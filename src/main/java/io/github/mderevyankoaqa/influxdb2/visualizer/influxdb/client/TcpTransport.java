@@ -0,0 +1,112 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The transport writing the records to the persistent TCP connection, e.g. to the socket listener of Telegraf.
+ * The records are not acknowledged: the batch is counted as the sent packet once it is flushed to the socket.
+ * The broken connection fails the batch, so it is retried by the next import; the connection is opened again.
+ * @author Michael Derevyanko
+ */
+public class TcpTransport implements LineProtocolTransport {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final Logger LOGGER;
+    private final InetSocketAddress address;
+    private final ListenerStatistics statistics;
+    private Socket socket;
+    private OutputStream output;
+
+    /**
+     * Creates the new instance of the {@link TcpTransport}, the connection is opened by the first write.
+     * @param address the address to connect to.
+     * @param statistics the {@link ListenerStatistics} to count the packets.
+     * @param logger {@link Logger}
+     */
+    public TcpTransport(InetSocketAddress address, ListenerStatistics statistics, Logger logger) {
+
+        this.address = address;
+        this.statistics = statistics;
+        this.LOGGER = logger;
+    }
+
+    /**
+     * Writes the records to the connection, the batches are written one by one.
+     * @param records the line protocol records with the nanoseconds precision.
+     * @throws IOException when the connection is broken.
+     */
+    @Override
+    public synchronized void write(List<String> records) throws IOException {
+
+        try {
+            if (this.socket == null) {
+                this.connect();
+            }
+
+            for (String record : records) {
+                this.output.write(record.getBytes(StandardCharsets.UTF_8));
+                this.output.write('\n');
+            }
+            this.output.flush();
+            this.statistics.onPacketsSent(1);
+
+        } catch (IOException e) {
+            this.statistics.onPacketsDropped(1);
+            this.disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        this.disconnect();
+    }
+
+    /**
+     * Opens the connection.
+     * @throws IOException when the address is not available.
+     */
+    private void connect() throws IOException {
+
+        Socket newSocket = new Socket();
+        try {
+            newSocket.connect(new InetSocketAddress(this.address.getHostString(), this.address.getPort()), CONNECT_TIMEOUT_MS);
+            this.output = new BufferedOutputStream(newSocket.getOutputStream(), STREAM_BUFFER_SIZE);
+        } catch (IOException e) {
+            newSocket.close();
+            throw e;
+        }
+
+        this.socket = newSocket;
+        this.LOGGER.info("TCP connection has been opened --> " + this.address);
+    }
+
+    /**
+     * Closes the connection quietly.
+     */
+    private void disconnect() {
+
+        if (this.socket == null) {
+            return;
+        }
+
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            this.LOGGER.debug("Failed to close the TCP connection --> " + e.getMessage());
+        }
+
+        this.socket = null;
+        this.output = null;
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The fire-and-forget transport writing the records by the datagrams, e.g. to the UDP listener of Telegraf.
+ * The records are packed to the datagrams not exceeding the payload size, so the datagrams are not fragmented;
+ * the batch is never retried, the datagrams failed to send and the records longer than the payload are counted as dropped.
+ * @author Michael Derevyanko
+ */
+public class UdpTransport implements LineProtocolTransport {
+
+    private final Logger LOGGER;
+    private final DatagramChannel channel;
+    private final ByteBuffer datagram;
+    private final ListenerStatistics statistics;
+    private boolean oversizedRecordReported;
+
+    /**
+     * Creates the new instance of the {@link UdpTransport}.
+     * @param address the address to send the datagrams to.
+     * @param payloadSize the max size of the datagram payload in bytes.
+     * @param statistics the {@link ListenerStatistics} to count the datagrams.
+     * @param logger {@link Logger}
+     * @throws IOException when the channel can not be opened.
+     */
+    public UdpTransport(InetSocketAddress address, int payloadSize, ListenerStatistics statistics, Logger logger) throws IOException {
+
+        this.channel = DatagramChannel.open();
+        this.channel.connect(new InetSocketAddress(address.getHostString(), address.getPort()));
+        this.datagram = ByteBuffer.allocateDirect(payloadSize);
+        this.statistics = statistics;
+        this.LOGGER = logger;
+    }
+
+    /**
+     * Sends the records packed to the datagrams, the batches are sent one by one.
+     * @param records the line protocol records with the nanoseconds precision.
+     */
+    @Override
+    public synchronized void write(List<String> records) {
+
+        for (String record : records) {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+
+            if (bytes.length + 1 > this.datagram.capacity()) {
+                this.statistics.onPointsDropped(1);
+                if (!this.oversizedRecordReported) {
+                    this.oversizedRecordReported = true;
+                    this.LOGGER.warn("The record with size " + bytes.length + " bytes does not fit the datagram, such records are dropped.");
+                }
+                continue;
+            }
+
+            if (bytes.length + 1 > this.datagram.remaining()) {
+                this.send();
+            }
+
+            this.datagram.put(bytes).put((byte) '\n');
+        }
+
+        this.send();
+    }
+
+    @Override
+    public void close() {
+
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            this.LOGGER.warn("Failed to close the datagram channel --> " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the filled datagram, counts it as sent or dropped.
+     */
+    private void send() {
+
+        if (this.datagram.position() == 0) {
+            return;
+        }
+
+        this.datagram.flip();
+        try {
+            this.channel.write(this.datagram);
+            this.statistics.onPacketsSent(1);
+        } catch (IOException e) {
+            // E.g. the port is unreachable, the datagram is lost anyway.
+            this.statistics.onPacketsDropped(1);
+            this.LOGGER.debug("Datagram was not sent --> " + e.getMessage());
+        } finally {
+            this.datagram.clear();
+        }
+    }
+}
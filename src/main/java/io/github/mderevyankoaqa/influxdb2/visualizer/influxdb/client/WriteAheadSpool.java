@@ -0,0 +1,526 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * The write-ahead spool of the batches not delivered to Influx DB.
+ * The batches are appended to the memory-mapped segment files on the local disk and are read back in the same order.
+ * The delivered batch is marked as acknowledged in place; the segment is deleted once all its batches are acknowledged.
+ * The pending batches survive the JMeter restart and are replayed by the next test using the same directory.
+ * <p>
+ * The record layout is: length of the payload (int), CRC32 of the payload (int), state (byte), payload (UTF-8 line protocol records separated by the new line).
+ * The length is written last, so the record interrupted by the process crash is not visible.
+ * After the OS crash or the power loss the pages of the record can reach the disk in any order, so the checksum is verified on opening the segment:
+ * the torn record and everything after it are dropped. Each record is forced before the next one is appended, so only the last record can be torn.
+ * The closed segment is unmapped at once, so it can be deleted on Windows as well.
+ *
+ * @author Michael Derevyanko
+ */
+public class WriteAheadSpool {
+
+    /**
+     * The default size of the segment.
+     */
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int CHECKSUM_OFFSET = LENGTH_SIZE;
+    private static final int STATE_OFFSET = CHECKSUM_OFFSET + Integer.BYTES;
+    private static final int HEADER_SIZE = STATE_OFFSET + 1;
+    private static final byte STATE_PENDING = 0;
+    private static final byte STATE_ACKNOWLEDGED = 1;
+    private static final char RECORDS_SEPARATOR = '\n';
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final Pattern SEGMENT_NAME = Pattern.compile(Pattern.quote(SEGMENT_PREFIX) + "(\\d{1,20})" + Pattern.quote(SEGMENT_SUFFIX));
+
+    /**
+     * Releases the mapping of the buffer, null if the JVM does not allow it: the mapping is released by the garbage collector then.
+     */
+    private static final MethodHandle UNMAPPER = getUnmapper();
+
+    private final Logger LOGGER;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Deque<Segment> segments;
+    private long nextSegmentNumber;
+    private long pendingBatches;
+
+    /**
+     * Creates the new instance of the {@link WriteAheadSpool}, opens the segments left by the previous run.
+     *
+     * @param directory the directory to keep the segments.
+     * @param maxSizeBytes the max size of all the segments.
+     * @param logger {@link Logger}
+     * @throws IOException when the directory or the segments can not be opened.
+     */
+    public WriteAheadSpool(Path directory, long maxSizeBytes, Logger logger) throws IOException {
+
+        this.LOGGER = logger;
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.segments = new ArrayDeque<>();
+
+        Files.createDirectories(directory);
+        this.openSegments();
+
+        if (this.pendingBatches != 0) {
+            this.LOGGER.info("The spool " + directory + " has " + this.pendingBatches + " batches from the previous run, they are going to be replayed.");
+        }
+    }
+
+    /**
+     * Appends the batch to the spool.
+     *
+     * @param records the line protocol records.
+     * @return true if the batch has been appended; false if the spool is full or the disk write has failed.
+     */
+    public synchronized boolean append(List<String> records) {
+
+        if (records.isEmpty()) {
+            return true;
+        }
+
+        byte[] payload = String.join(String.valueOf(RECORDS_SEPARATOR), records).getBytes(StandardCharsets.UTF_8);
+        int recordSize = HEADER_SIZE + payload.length;
+
+        try {
+            Segment segment = this.segments.peekLast();
+            if (segment == null || !segment.hasRoom(recordSize)) {
+
+                int segmentSize = Math.max(SEGMENT_SIZE, recordSize + LENGTH_SIZE);
+                if (this.getSize() + segmentSize > this.maxSizeBytes) {
+                    return false;
+                }
+
+                segment = this.createSegment(segmentSize);
+            }
+
+            segment.append(payload);
+            this.pendingBatches++;
+            return true;
+
+        } catch (IOException e) {
+            this.LOGGER.error("Failed to append the batch to the spool " + this.directory + ", see the details --> " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the oldest pending batch, the batch stays in the spool till {@link #acknowledge()}.
+     *
+     * @return the line protocol records; null if there are no pending batches.
+     */
+    public synchronized List<String> peek() {
+
+        Segment segment = this.getHeadSegment();
+        if (segment == null) {
+            return null;
+        }
+
+        String payload = new String(segment.readPayload(), StandardCharsets.UTF_8);
+        List<String> records = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = payload.indexOf(RECORDS_SEPARATOR, start)) >= 0) {
+            records.add(payload.substring(start, end));
+            start = end + 1;
+        }
+        records.add(payload.substring(start));
+
+        return records;
+    }
+
+    /**
+     * Marks the oldest pending batch as delivered, deletes the segment if nothing is pending there.
+     */
+    public synchronized void acknowledge() {
+
+        Segment segment = this.getHeadSegment();
+        if (segment == null) {
+            return;
+        }
+
+        segment.acknowledge();
+        this.pendingBatches--;
+        this.getHeadSegment();
+    }
+
+    /**
+     * Checks whether the spool has pending batches.
+     *
+     * @return true if nothing to replay; otherwise false.
+     */
+    public synchronized boolean isEmpty() {
+        return this.pendingBatches == 0;
+    }
+
+    /**
+     * Gets the amount of the pending batches.
+     *
+     * @return the amount of the pending batches.
+     */
+    public synchronized long getPendingBatches() {
+        return this.pendingBatches;
+    }
+
+    /**
+     * Flushes the segments to the disk and closes them; the pending batches are kept for the next run, the completed segments are deleted.
+     */
+    public synchronized void close() {
+
+        for (Segment segment : this.segments) {
+            if (segment.skipAcknowledged()) {
+                segment.close();
+            } else {
+                segment.delete();
+            }
+        }
+
+        this.segments.clear();
+    }
+
+    /**
+     * Gets the head segment with the pending batch, deletes the completed segments except the one used for appending.
+     *
+     * @return the head segment; null if there are no pending batches.
+     */
+    private Segment getHeadSegment() {
+
+        while (!this.segments.isEmpty()) {
+            Segment segment = this.segments.peekFirst();
+            if (segment.skipAcknowledged()) {
+                return segment;
+            }
+
+            if (segment == this.segments.peekLast()) {
+                return null;
+            }
+
+            this.segments.pollFirst();
+            segment.delete();
+        }
+
+        return null;
+    }
+
+    /**
+     * Opens the segments left by the previous run, deletes the completed ones.
+     *
+     * @throws IOException when the segment can not be opened.
+     */
+    private void openSegments() throws IOException {
+
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+
+        for (Path path : paths) {
+            Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+            long number;
+            try {
+                number = matcher.matches() && Files.isRegularFile(path) ? Long.parseLong(matcher.group(1)) : -1;
+            } catch (NumberFormatException e) {
+                number = -1;
+            }
+
+            // The files not written by the spool are left as they are.
+            if (number < 0) {
+                this.LOGGER.warn("The file " + path + " is not the spool segment, it is skipped.");
+                continue;
+            }
+            this.nextSegmentNumber = Math.max(this.nextSegmentNumber, number + 1);
+
+            Segment segment = new Segment(path, (int) Files.size(path));
+            long pending = segment.countPending();
+            if (pending == 0) {
+                segment.delete();
+                continue;
+            }
+
+            // The segment of the previous run is replayed only, the new batches go to the new segment.
+            segment.seal();
+            this.segments.addLast(segment);
+            this.pendingBatches += pending;
+        }
+    }
+
+    /**
+     * Creates the new segment for appending.
+     *
+     * @param segmentSize the size of the segment.
+     * @return the created {@link Segment}.
+     * @throws IOException when the segment can not be created.
+     */
+    private Segment createSegment(int segmentSize) throws IOException {
+
+        Segment last = this.segments.peekLast();
+        if (last != null) {
+            last.seal();
+        }
+
+        Path path = this.directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, this.nextSegmentNumber++, SEGMENT_SUFFIX));
+        Segment segment = new Segment(path, segmentSize);
+        this.segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Gets the handle of {@code sun.misc.Unsafe.invokeCleaner}, the only way to unmap the buffer before Java has the public API for it.
+     *
+     * @return the handle bound to the {@code Unsafe} instance; null if it is not available.
+     */
+    private static MethodHandle getUnmapper() {
+
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the size of all the segments.
+     *
+     * @return the size in bytes.
+     */
+    private long getSize() {
+
+        long size = 0;
+        for (Segment segment : this.segments) {
+            size += segment.capacity;
+        }
+        return size;
+    }
+
+    /**
+     * The memory-mapped segment file.
+     */
+    private final class Segment {
+
+        private final Path path;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int readPosition;
+        private int writePosition;
+        private boolean sealed;
+        private boolean closed;
+
+        /**
+         * Opens or creates the segment, finds the end of the written records.
+         *
+         * @param path the segment file.
+         * @param capacity the size of the segment.
+         * @throws IOException when the segment can not be mapped.
+         */
+        private Segment(Path path, int capacity) throws IOException {
+
+            this.path = path;
+            this.capacity = capacity;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+            while (this.hasRecordAt(this.writePosition)) {
+                this.writePosition += HEADER_SIZE + this.buffer.getInt(this.writePosition);
+            }
+
+            if (this.writePosition + LENGTH_SIZE <= capacity && this.buffer.getInt(this.writePosition) != 0) {
+                WriteAheadSpool.this.LOGGER.warn("The spool segment " + path + " has the torn record at " + this.writePosition
+                        + ", the record and the rest of the segment are dropped.");
+            }
+        }
+
+        /**
+         * Checks whether the record fits the segment, the place for the end marker is reserved.
+         *
+         * @param recordSize the size of the record with the header.
+         * @return true if the record fits; otherwise false.
+         */
+        private boolean hasRoom(int recordSize) {
+            return !this.sealed && this.writePosition + recordSize + LENGTH_SIZE <= this.capacity;
+        }
+
+        /**
+         * Appends the record and flushes it to the disk.
+         *
+         * @param payload the payload of the record.
+         */
+        private void append(byte[] payload) {
+
+            int position = this.writePosition;
+            CRC32 checksum = new CRC32();
+            checksum.update(payload);
+            this.buffer.putInt(position + CHECKSUM_OFFSET, (int) checksum.getValue());
+            this.buffer.put(position + STATE_OFFSET, STATE_PENDING);
+            ByteBuffer target = this.buffer.duplicate();
+            target.position(position + HEADER_SIZE);
+            target.put(payload);
+
+            // The length makes the record visible.
+            this.buffer.putInt(position, payload.length);
+            this.buffer.force();
+
+            this.writePosition = position + HEADER_SIZE + payload.length;
+        }
+
+        /**
+         * Moves the read position to the first pending record.
+         *
+         * @return true if the pending record exists; otherwise false.
+         */
+        private boolean skipAcknowledged() {
+
+            while (this.readPosition < this.writePosition) {
+                if (this.buffer.get(this.readPosition + STATE_OFFSET) == STATE_PENDING) {
+                    return true;
+                }
+                this.readPosition += HEADER_SIZE + this.buffer.getInt(this.readPosition);
+            }
+
+            return false;
+        }
+
+        /**
+         * Reads the payload of the record at the read position.
+         *
+         * @return the payload.
+         */
+        private byte[] readPayload() {
+
+            byte[] payload = new byte[this.buffer.getInt(this.readPosition)];
+            ByteBuffer source = this.buffer.duplicate();
+            source.position(this.readPosition + HEADER_SIZE);
+            source.get(payload);
+            return payload;
+        }
+
+        /**
+         * Marks the record at the read position as acknowledged.
+         */
+        private void acknowledge() {
+
+            this.buffer.put(this.readPosition + STATE_OFFSET, STATE_ACKNOWLEDGED);
+            this.buffer.force();
+            this.readPosition += HEADER_SIZE + this.buffer.getInt(this.readPosition);
+        }
+
+        /**
+         * Counts the pending records.
+         *
+         * @return the amount of the pending records.
+         */
+        private long countPending() {
+
+            long pending = 0;
+            for (int position = 0; position < this.writePosition; position += HEADER_SIZE + this.buffer.getInt(position)) {
+                if (this.buffer.get(position + STATE_OFFSET) == STATE_PENDING) {
+                    pending++;
+                }
+            }
+            return pending;
+        }
+
+        /**
+         * Forbids appending to the segment.
+         */
+        private void seal() {
+            this.sealed = true;
+        }
+
+        /**
+         * Checks whether the complete record starts at the position, the payload must match its checksum.
+         *
+         * @param position the position.
+         * @return true if the record exists; otherwise false.
+         */
+        private boolean hasRecordAt(int position) {
+
+            if (position + HEADER_SIZE > this.capacity) {
+                return false;
+            }
+
+            int length = this.buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > this.capacity) {
+                return false;
+            }
+
+            ByteBuffer payload = this.buffer.duplicate();
+            payload.limit(position + HEADER_SIZE + length);
+            payload.position(position + HEADER_SIZE);
+            CRC32 checksum = new CRC32();
+            checksum.update(payload);
+            return (int) checksum.getValue() == this.buffer.getInt(position + CHECKSUM_OFFSET);
+        }
+
+        /**
+         * Flushes, closes and unmaps the segment; the segment must not be used after that.
+         */
+        private void close() {
+
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+
+            try {
+                this.buffer.force();
+                this.channel.close();
+            } catch (IOException e) {
+                WriteAheadSpool.this.LOGGER.warn("Failed to close the spool segment " + this.path + ", see the details --> " + e.getMessage());
+            }
+
+            if (UNMAPPER != null) {
+                try {
+                    UNMAPPER.invokeExact((ByteBuffer) this.buffer);
+                } catch (Throwable e) {
+                    WriteAheadSpool.this.LOGGER.warn("Failed to unmap the spool segment " + this.path + ", see the details --> " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Closes and deletes the segment.
+         */
+        private void delete() {
+
+            this.close();
+            try {
+                Files.deleteIfExists(this.path);
+            } catch (IOException e) {
+                WriteAheadSpool.this.LOGGER.warn("Failed to delete the spool segment " + this.path + ", see the details --> " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.loader;
+
+import com.influxdb.utils.Arguments;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.CaptureFileTransport;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.HttpTransport;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.ListenerStatistics;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.RecordBuffer;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads the files captured by the {@link CaptureFileTransport} to InfluxDB after the test.
+ * The files are loaded one by one in the order they were written, each file is streamed by the chunks of the max batch size
+ * and the chunks are written in parallel by the InfluxDB HTTP API.
+ * The amount of the lines loaded without gaps is kept in the {@code *.progress} file, so the failed load is resumed from it;
+ * the chunks written after the gap are written once again then, InfluxDB overwrites such points.
+ * The loaded file is renamed to {@code *.lp.gz.loaded}.
+ *
+ * @author Michael Derevyanko
+ */
+public class BulkLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoader.class);
+
+    /**
+     * Default amount of the chunks written in parallel.
+     */
+    public static final int DEFAULT_LOADER_PARALLELISM = 4;
+
+    /**
+     * Default amount of the retries of the failed chunk.
+     */
+    public static final int DEFAULT_LOADER_RETRIES = 3;
+
+    /**
+     * Parameter Keys.
+     */
+    public static final String KEY_LOADER_DIRECTORY = "loaderDirectory";
+    public static final String KEY_LOADER_PARALLELISM = "loaderParallelism";
+    public static final String KEY_LOADER_RETRIES = "loaderRetries";
+
+    /**
+     * The extension added to the loaded file.
+     */
+    public static final String LOADED_SUFFIX = ".loaded";
+
+    /**
+     * The extension of the file keeping the amount of the loaded lines.
+     */
+    public static final String PROGRESS_SUFFIX = ".progress";
+
+    private static final int READER_BUFFER_SIZE = 64 * 1024;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final InfluxDBConfig influxDBConfig;
+    private final Path directory;
+    private final int parallelism;
+    private final int retries;
+    private final long maxBatchBytes;
+    private final AtomicInteger threadsCounter;
+
+    /**
+     * Creates the new instance of the {@link BulkLoader}.
+     *
+     * @param context the {@link BackendListenerContext} with the loader and the InfluxDB settings.
+     * @throws IllegalArgumentException when the directory is not set or the settings are not valid.
+     */
+    public BulkLoader(BackendListenerContext context) throws IllegalArgumentException {
+
+        this.influxDBConfig = new InfluxDBConfig(context);
+
+        String directory = context.getParameter(KEY_LOADER_DIRECTORY, this.influxDBConfig.getInfluxdbCaptureDirectory()).trim();
+        if (directory.isEmpty()) {
+            throw new IllegalArgumentException(KEY_LOADER_DIRECTORY + " must be set.");
+        }
+        this.directory = Paths.get(directory);
+
+        this.parallelism = context.getIntParameter(KEY_LOADER_PARALLELISM, DEFAULT_LOADER_PARALLELISM);
+        Arguments.checkPositiveNumber(this.parallelism, KEY_LOADER_PARALLELISM);
+
+        this.retries = context.getIntParameter(KEY_LOADER_RETRIES, DEFAULT_LOADER_RETRIES);
+        Arguments.checkNotNegativeNumber(this.retries, KEY_LOADER_RETRIES);
+
+        this.maxBatchBytes = this.influxDBConfig.getInfluxdbMaxBatchPayloadSize() * 1024L;
+        this.threadsCounter = new AtomicInteger();
+    }
+
+    /**
+     * Loads the captured files of the directory.
+     *
+     * @return true if all the files have been loaded; false if the load has stopped on the failed chunk.
+     * @throws IOException when the directory or the file can not be read.
+     */
+    public boolean load() throws IOException {
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(this.directory)) {
+            files = paths.sorted().collect(Collectors.toList());
+        }
+
+        List<Path> captures = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(CaptureFileTransport.FILE_SUFFIX)) {
+                captures.add(file);
+            } else if (name.endsWith(CaptureFileTransport.FILE_SUFFIX + CaptureFileTransport.PART_SUFFIX)) {
+                LOGGER.warn("The file " + file + " is still being written or the test has crashed, it is skipped. "
+                        + "Rename it to *" + CaptureFileTransport.FILE_SUFFIX + " to load the batches written before the crash.");
+            }
+        }
+
+        LOGGER.info("Loading the files --> " + captures.size() + ", directory --> " + this.directory + ", URL --> " + this.influxDBConfig.getInfluxDBURL()
+                + ", bucket --> " + this.influxDBConfig.getInfluxBucket() + ", parallelism --> " + this.parallelism);
+
+        HttpTransport transport = new HttpTransport(this.influxDBConfig, new ListenerStatistics());
+        ExecutorService loaderPool = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "influxdb-loader-" + this.threadsCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (Path file : captures) {
+                if (!this.loadFile(file, transport, loaderPool)) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            loaderPool.shutdownNow();
+            transport.close();
+        }
+
+        return true;
+    }
+
+    /**
+     * Loads the file, resumes it from the progress file if it exists.
+     *
+     * @param file the captured file.
+     * @param transport the {@link HttpTransport}.
+     * @param loaderPool the pool writing the chunks.
+     * @return true if the file has been loaded.
+     * @throws IOException when the file can not be read.
+     * @throws InterruptedException when the thread is interrupted.
+     */
+    private boolean loadFile(Path file, HttpTransport transport, ExecutorService loaderPool) throws IOException, InterruptedException {
+
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress(file.resolveSibling(file.getFileName() + PROGRESS_SUFFIX));
+        long loadedLines = progress.getWatermark();
+        if (loadedLines > 0) {
+            LOGGER.info("Resuming the file " + file + " from the line --> " + loadedLines);
+        }
+
+        Semaphore slots = new Semaphore(this.parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicLong records = new AtomicLong();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), READER_BUFFER_SIZE), StandardCharsets.UTF_8), READER_BUFFER_SIZE)) {
+
+            List<String> chunk = new ArrayList<>();
+            long chunkBytes = 0;
+            long chunkStart = loadedLines;
+            long line = 0;
+            String record;
+
+            try {
+                while (!failed.get() && (record = reader.readLine()) != null) {
+                    line++;
+                    if (line <= loadedLines) {
+                        continue;
+                    }
+
+                    if (!record.isEmpty()) {
+                        chunk.add(record);
+                        chunkBytes += RecordBuffer.RECORD_BYTES.applyAsLong(record);
+                    }
+
+                    if (chunk.size() >= this.influxDBConfig.getInfluxdbBatchSize() || chunkBytes >= this.maxBatchBytes) {
+                        this.writeChunk(chunk, chunkStart, line, transport, loaderPool, slots, progress, failed, records);
+                        chunk = new ArrayList<>();
+                        chunkBytes = 0;
+                        chunkStart = line;
+                    }
+                }
+            } catch (EOFException e) {
+                LOGGER.warn("The file " + file + " is truncated, the records before the end are loaded.");
+            }
+
+            if (!failed.get() && line > chunkStart) {
+                this.writeChunk(chunk, chunkStart, line, transport, loaderPool, slots, progress, failed, records);
+            }
+        } finally {
+            // Waits for the chunks in flight.
+            slots.acquire(this.parallelism);
+        }
+
+        if (failed.get()) {
+            LOGGER.error("Loading of the file " + file + " has failed, lines loaded --> " + progress.getWatermark()
+                    + ". Run the loader again to resume it.");
+            return false;
+        }
+
+        Files.move(file, file.resolveSibling(file.getFileName() + LOADED_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        progress.delete();
+
+        LOGGER.info("File has been loaded --> " + file + ", records --> " + records.get() + ", elapsed time is --> " + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    /**
+     * Writes the chunk by the loader pool, waits for the free slot before.
+     *
+     * @param chunk the records of the chunk.
+     * @param fromLine the amount of the lines before the chunk.
+     * @param toLine the amount of the lines up to the end of the chunk.
+     * @param transport the {@link HttpTransport}.
+     * @param loaderPool the pool writing the chunks.
+     * @param slots the slots of the chunks in flight.
+     * @param progress the {@link Progress} of the file.
+     * @param failed set to true when the chunk has failed.
+     * @param records the counter of the written records.
+     * @throws InterruptedException when the thread is interrupted.
+     */
+    private void writeChunk(List<String> chunk, long fromLine, long toLine, HttpTransport transport, ExecutorService loaderPool,
+                            Semaphore slots, Progress progress, AtomicBoolean failed, AtomicLong records) throws InterruptedException {
+
+        slots.acquire();
+        loaderPool.execute(() -> {
+            try {
+                if (chunk.isEmpty() || this.writeWithRetries(chunk, transport)) {
+                    records.addAndGet(chunk.size());
+                    progress.complete(fromLine, toLine);
+                } else {
+                    failed.set(true);
+                }
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    /**
+     * Writes the chunk, retries it with the growing delay.
+     *
+     * @param chunk the records of the chunk.
+     * @param transport the {@link HttpTransport}.
+     * @return true if the chunk has been written.
+     */
+    private boolean writeWithRetries(List<String> chunk, HttpTransport transport) {
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                transport.write(chunk);
+                return true;
+            } catch (IOException e) {
+                if (attempt >= this.retries) {
+                    LOGGER.error("Failed to write the chunk of " + chunk.size() + " records after " + attempt + " retries", e);
+                    return false;
+                }
+
+                LOGGER.warn("Failed to write the chunk of " + chunk.size() + " records, retrying --> " + e.getMessage());
+            }
+
+            try {
+                Thread.sleep(RETRY_DELAY_MS << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The amount of the lines of the file loaded without gaps, the chunks completed out of order are kept till the gap is closed.
+     */
+    private static final class Progress {
+
+        private final Path progressFile;
+        private final TreeMap<Long, Long> completedChunks;
+        private long watermark;
+
+        /**
+         * Creates the new instance of the {@link Progress}, reads the watermark of the previous load.
+         *
+         * @param progressFile the file of the watermark.
+         * @throws IOException when the progress file can not be read.
+         */
+        Progress(Path progressFile) throws IOException {
+
+            this.progressFile = progressFile;
+            this.completedChunks = new TreeMap<>();
+            if (Files.exists(progressFile)) {
+                this.watermark = Long.parseLong(new String(Files.readAllBytes(progressFile), StandardCharsets.UTF_8).trim());
+            }
+        }
+
+        /**
+         * Gets the amount of the lines loaded without gaps.
+         *
+         * @return the watermark.
+         */
+        synchronized long getWatermark() {
+            return this.watermark;
+        }
+
+        /**
+         * Marks the chunk as loaded, moves the watermark and saves it if the chunk closes the gap.
+         *
+         * @param fromLine the amount of the lines before the chunk.
+         * @param toLine the amount of the lines up to the end of the chunk.
+         */
+        synchronized void complete(long fromLine, long toLine) {
+
+            this.completedChunks.put(fromLine, toLine);
+
+            long watermark = this.watermark;
+            Long next;
+            while ((next = this.completedChunks.remove(watermark)) != null) {
+                watermark = next;
+            }
+
+            if (watermark == this.watermark) {
+                return;
+            }
+            this.watermark = watermark;
+
+            // The watermark is replaced atomically, so the crashed loader does not leave the broken progress.
+            try {
+                Path tempFile = this.progressFile.resolveSibling(this.progressFile.getFileName() + ".tmp");
+                Files.write(tempFile, Long.toString(watermark).getBytes(StandardCharsets.UTF_8));
+                Files.move(tempFile, this.progressFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to save the progress to " + this.progressFile + ", the load is resumed from the previous one", e);
+            }
+        }
+
+        /**
+         * Deletes the progress file of the loaded file.
+         *
+         * @throws IOException when the file can not be deleted.
+         */
+        synchronized void delete() throws IOException {
+            Files.deleteIfExists(this.progressFile);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.relay;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The line protocol record parsed to the measurement, the tags and the fields, is used by the relay to pre-aggregate the records.
+ * Understands the records written by the listener: the escaped measurement and tags, the quoted string fields, the integer fields.
+ * @author Michael Derevyanko
+ */
+final class LineProtocolRecord {
+
+    private final String measurement;
+    private final Map<String, String> tags;
+    private final Map<String, String> fields;
+
+    /**
+     * Creates the new instance of the {@link LineProtocolRecord}.
+     * @param measurement the measurement name.
+     * @param tags the tags.
+     * @param fields the fields, the raw values.
+     */
+    private LineProtocolRecord(String measurement, Map<String, String> tags, Map<String, String> fields) {
+
+        this.measurement = measurement;
+        this.tags = tags;
+        this.fields = fields;
+    }
+
+    /**
+     * Gets the measurement name of the record without parsing the rest.
+     * @param record the line protocol record.
+     * @return the measurement name.
+     */
+    static String getMeasurement(String record) {
+
+        StringBuilder builder = new StringBuilder();
+        readToken(record, 0, false, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Parses the line protocol record.
+     * @param record the line protocol record.
+     * @return the {@link LineProtocolRecord}.
+     * @throws IllegalArgumentException when the record has no fields.
+     */
+    static LineProtocolRecord parse(String record) throws IllegalArgumentException {
+
+        StringBuilder builder = new StringBuilder();
+        int index = readToken(record, 0, false, builder);
+        String measurement = builder.toString();
+
+        Map<String, String> tags = new HashMap<>();
+        while (index < record.length() && record.charAt(index) == ',') {
+            builder.setLength(0);
+            index = readToken(record, index + 1, true, builder);
+            String key = builder.toString();
+
+            builder.setLength(0);
+            index = readToken(record, index + 1, false, builder);
+            tags.put(key, builder.toString());
+        }
+
+        if (index >= record.length()) {
+            throw new IllegalArgumentException("The record has no fields: " + record);
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        do {
+            builder.setLength(0);
+            index = readToken(record, index + 1, true, builder);
+            String key = builder.toString();
+
+            builder.setLength(0);
+            index = readFieldValue(record, index + 1, builder);
+            fields.put(key, builder.toString());
+        } while (index < record.length() && record.charAt(index) == ',');
+
+        return new LineProtocolRecord(measurement, tags, fields);
+    }
+
+    /**
+     * Gets the measurement name.
+     * @return the measurement name.
+     */
+    String getMeasurement() {
+        return this.measurement;
+    }
+
+    /**
+     * Gets the tag value.
+     * @param key the tag key.
+     * @return the tag value, null if the record has no such tag.
+     */
+    String getTag(String key) {
+        return this.tags.get(key);
+    }
+
+    /**
+     * Gets the numeric field value.
+     * @param key the field key.
+     * @return the field value, 0 if the record has no such field or it is not numeric.
+     */
+    long getLongField(String key) {
+
+        String value = this.fields.get(key);
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            char last = value.charAt(value.length() - 1);
+            if (last == 'i' || last == 'u') {
+                return Long.parseLong(value.substring(0, value.length() - 1));
+            }
+            return (long) Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the escaped measurement, tag key, tag value or field key till the unescaped delimiter.
+     * @param record the line protocol record.
+     * @param index the index to start from.
+     * @param stopAtEqual set to true to stop at the equal sign.
+     * @param builder the builder to append the unescaped value.
+     * @return the index of the delimiter.
+     */
+    private static int readToken(String record, int index, boolean stopAtEqual, StringBuilder builder) {
+
+        while (index < record.length()) {
+            char symbol = record.charAt(index);
+
+            if (symbol == ',' || symbol == ' ' || (stopAtEqual && symbol == '=')) {
+                return index;
+            }
+
+            if (symbol == '\\' && index + 1 < record.length()) {
+                char escaped = record.charAt(index + 1);
+                switch (escaped) {
+                    case 'n':
+                        builder.append('\n');
+                        index += 2;
+                        continue;
+                    case 'r':
+                        builder.append('\r');
+                        index += 2;
+                        continue;
+                    case 't':
+                        builder.append('\t');
+                        index += 2;
+                        continue;
+                    case ',':
+                    case ' ':
+                    case '=':
+                        builder.append(escaped);
+                        index += 2;
+                        continue;
+                    default:
+                        break;
+                }
+            }
+
+            builder.append(symbol);
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * Reads the field value till the comma or the space, the quoted string value is read till the closing quote.
+     * @param record the line protocol record.
+     * @param index the index to start from.
+     * @param builder the builder to append the value, the string value is unquoted and unescaped.
+     * @return the index of the delimiter.
+     */
+    private static int readFieldValue(String record, int index, StringBuilder builder) {
+
+        if (index < record.length() && record.charAt(index) == '"') {
+            index++;
+            while (index < record.length()) {
+                char symbol = record.charAt(index);
+                if (symbol == '"') {
+                    return index + 1;
+                }
+                if (symbol == '\\' && index + 1 < record.length()) {
+                    symbol = record.charAt(++index);
+                }
+                builder.append(symbol);
+                index++;
+            }
+            return index;
+        }
+
+        while (index < record.length()) {
+            char symbol = record.charAt(index);
+            if (symbol == ',' || symbol == ' ') {
+                return index;
+            }
+            builder.append(symbol);
+            index++;
+        }
+
+        return index;
+    }
+}
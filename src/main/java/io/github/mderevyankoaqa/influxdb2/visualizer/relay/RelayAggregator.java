@@ -0,0 +1,85 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.relay;
+
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestMeasurement;
+import io.github.mderevyankoaqa.influxdb2.visualizer.result.SampleResultAggregator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-aggregates the {@link RequestMeasurement} records of all the injectors: the records of the same run, test, label and result
+ * are merged to the one {@link io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestAggregatedMeasurement} point per flush interval,
+ * written with the node name of the relay.
+ * @author Michael Derevyanko
+ */
+class RelayAggregator {
+
+    private final String nodeName;
+    private final Map<String, SampleResultAggregator> aggregators;
+
+    /**
+     * Creates the new instance of the {@link RelayAggregator}.
+     * @param nodeName the node name of the aggregated points.
+     */
+    RelayAggregator(String nodeName) {
+
+        this.nodeName = nodeName;
+        this.aggregators = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks whether the record is aggregated by the relay.
+     * @param record the line protocol record.
+     * @return true if the record is the {@link RequestMeasurement} one; otherwise false.
+     */
+    static boolean isAggregated(String record) {
+        return record.startsWith(RequestMeasurement.MEASUREMENT_NAME) && RequestMeasurement.MEASUREMENT_NAME.equals(LineProtocolRecord.getMeasurement(record));
+    }
+
+    /**
+     * Adds the {@link RequestMeasurement} record.
+     * @param record the line protocol record.
+     * @throws IllegalArgumentException when the record can not be parsed.
+     */
+    void add(String record) throws IllegalArgumentException {
+
+        LineProtocolRecord parsed = LineProtocolRecord.parse(record);
+
+        String runId = parsed.getTag(RequestMeasurement.Tags.RUN_ID);
+        String testName = parsed.getTag(RequestMeasurement.Tags.TEST_NAME);
+
+        // The injectors of the same test have the same run id and test name, the node name is dropped.
+        SampleResultAggregator aggregator = this.aggregators.computeIfAbsent(runId + '\n' + testName,
+                key -> new SampleResultAggregator(runId, testName, this.nodeName));
+
+        aggregator.add(parsed.getTag(RequestMeasurement.Tags.REQUEST_NAME),
+                parsed.getTag(RequestMeasurement.Tags.SAMPLE_TYPE),
+                !"fail".equals(parsed.getTag(RequestMeasurement.Tags.RESULT)),
+                parsed.getLongField(RequestMeasurement.Fields.REQUEST_COUNT),
+                parsed.getLongField(RequestMeasurement.Fields.ERROR_COUNT),
+                parsed.getLongField(RequestMeasurement.Fields.SENT_BYTES),
+                parsed.getLongField(RequestMeasurement.Fields.RECEIVED_BYTES),
+                parsed.getLongField(RequestMeasurement.Fields.RESPONSE_TIME),
+                parsed.getLongField(RequestMeasurement.Fields.LATENCY),
+                parsed.getLongField(RequestMeasurement.Fields.CONNECT_TIME));
+    }
+
+    /**
+     * Gets the points aggregated since the previous call, resets the aggregators.
+     * Must be called by the single thread.
+     * @param timeInMs the time of the points.
+     * @return the aggregated points.
+     */
+    List<Point> getPoints(long timeInMs) {
+
+        List<Point> points = new ArrayList<>();
+        for (SampleResultAggregator aggregator : this.aggregators.values()) {
+            points.addAll(aggregator.getPoints(timeInMs));
+        }
+
+        return points;
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.relay;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseUtility;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.LineProtocolTransport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The client of the {@link RelayServer}: sends the batches of the line protocol records over TCP and waits for the acknowledgement.
+ * The batch is the records separated by the line feed and ended by the empty line; the relay answers with the single byte.
+ * The connections are pooled, so each batch in flight has its own connection.
+ * @author Michael Derevyanko
+ */
+public class RelayClient implements LineProtocolTransport {
+
+    /**
+     * The byte the relay answers with once the batch is accepted.
+     */
+    static final int ACK = '1';
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 30000;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress address;
+    private final Queue<Connection> connections;
+
+    /**
+     * Creates the new instance of the {@link RelayClient}.
+     * @param address the relay address as host:port.
+     * @throws IllegalArgumentException when the address is not host:port.
+     */
+    public RelayClient(String address) throws IllegalArgumentException {
+
+        this.address = InfluxDatabaseUtility.parseSocketAddress(address, InfluxDBConfig.KEY_INFLUX_DB_RELAY_ADDRESS);
+        this.connections = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Sends the batch to the relay, waits for the acknowledgement.
+     * @param records the line protocol records.
+     * @throws IOException when the batch is not accepted by the relay.
+     */
+    @Override
+    public void write(List<String> records) throws IOException {
+
+        Connection connection = this.connections.poll();
+        if (connection == null) {
+            connection = new Connection(this.address);
+        }
+
+        try {
+            connection.write(records);
+        } catch (IOException e) {
+            // The broken connection is not returned to the pool.
+            connection.close();
+            throw e;
+        }
+
+        this.connections.offer(connection);
+    }
+
+    /**
+     * Closes the pooled connections.
+     */
+    @Override
+    public void close() {
+
+        Connection connection;
+        while ((connection = this.connections.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * The connection to the relay.
+     */
+    private static final class Connection {
+
+        private final Socket socket;
+        private final OutputStream output;
+        private final InputStream input;
+
+        /**
+         * Opens the connection.
+         * @param address the relay address.
+         * @throws IOException when the relay is not available.
+         */
+        private Connection(InetSocketAddress address) throws IOException {
+
+            this.socket = new Socket();
+            try {
+                this.socket.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT_MS);
+                this.socket.setSoTimeout(READ_TIMEOUT_MS);
+                this.socket.setTcpNoDelay(true);
+                this.output = new BufferedOutputStream(this.socket.getOutputStream(), STREAM_BUFFER_SIZE);
+                this.input = new BufferedInputStream(this.socket.getInputStream());
+            } catch (IOException e) {
+                this.socket.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Writes the batch, waits for the acknowledgement.
+         * @param records the line protocol records.
+         * @throws IOException when the batch is not accepted by the relay.
+         */
+        private void write(List<String> records) throws IOException {
+
+            for (String record : records) {
+                this.output.write(record.getBytes(StandardCharsets.UTF_8));
+                this.output.write('\n');
+            }
+            this.output.write('\n');
+            this.output.flush();
+
+            int answer = this.input.read();
+            if (answer != ACK) {
+                throw new IOException("The relay has not accepted the batch, the answer is " + answer);
+            }
+        }
+
+        /**
+         * Closes the connection quietly.
+         */
+        private void close() {
+
+            try {
+                this.socket.close();
+            } catch (IOException e) {
+                // Nothing to do, the connection is not used anymore.
+            }
+        }
+    }
+}
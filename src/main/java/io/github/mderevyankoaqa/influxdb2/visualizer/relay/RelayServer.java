@@ -0,0 +1,288 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.relay;
+
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.InfluxDatabaseBackendListenerClient;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseClient;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseClientRegistry;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The relay of the distributed test: the injectors send the batches of the line protocol records to the relay over TCP
+ * (see {@link RelayClient}), the relay merges them into the large batches and writes them to InfluxDB by the {@link InfluxDatabaseClient},
+ * so InfluxDB gets the single write stream instead of the stream per injector.
+ * Optionally the {@link io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestMeasurement} records of all the injectors
+ * are pre-aggregated by the {@link RelayAggregator}, the rest of the records are written as they are.
+ * The batch is handled once it is received completely and acknowledged once its records are put to the buffer of the {@link InfluxDatabaseClient},
+ * so the part of the batch received before the connection is broken is dropped and is not aggregated twice when the injector resends the batch.
+ *
+ * @author Michael Derevyanko
+ */
+public class RelayServer implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RelayServer.class);
+
+    /**
+     * Default port of the relay.
+     */
+    public static final int DEFAULT_RELAY_PORT = 8094;
+
+    /**
+     * Default node name of the pre-aggregated points.
+     */
+    public static final String DEFAULT_RELAY_NODE_NAME = "Relay";
+
+    /**
+     * Parameter Keys.
+     */
+    public static final String KEY_RELAY_PORT = "relayPort";
+    public static final String KEY_RELAY_AGGREGATE = "relayAggregate";
+    public static final String KEY_RELAY_NODE_NAME = "relayNodeName";
+
+    private static final int READER_BUFFER_SIZE = 64 * 1024;
+
+    private final int port;
+    private final InfluxDBConfig influxDBConfig;
+    private final RelayAggregator aggregator;
+    private final Set<Socket> sockets;
+    private final AtomicInteger connectionsCounter;
+    private InfluxDatabaseClient client;
+    private ServerSocket serverSocket;
+    private ExecutorService connectionsPool;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates the new instance of the {@link RelayServer}.
+     *
+     * @param context the {@link BackendListenerContext} with the relay and the InfluxDB settings.
+     */
+    public RelayServer(BackendListenerContext context) {
+
+        this.port = context.getIntParameter(KEY_RELAY_PORT, DEFAULT_RELAY_PORT);
+        this.influxDBConfig = new InfluxDBConfig(context);
+        this.aggregator = context.getBooleanParameter(KEY_RELAY_AGGREGATE, false)
+                ? new RelayAggregator(context.getParameter(KEY_RELAY_NODE_NAME, DEFAULT_RELAY_NODE_NAME))
+                : null;
+        this.sockets = ConcurrentHashMap.newKeySet();
+        this.connectionsCounter = new AtomicInteger();
+    }
+
+    /**
+     * Starts the relay: the InfluxDB client, the acceptor of the connections and the pre-aggregation by the flush interval.
+     *
+     * @throws IOException when the port can not be bound.
+     */
+    public void start() throws IOException {
+
+        this.client = InfluxDatabaseClientRegistry.acquire(this.influxDBConfig, LOGGER);
+
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(this.port));
+
+        // The threads are not daemons, the acceptor keeps the relay running till it is closed.
+        this.connectionsPool = Executors.newCachedThreadPool(runnable ->
+                new Thread(runnable, "influxdb-relay-" + this.connectionsCounter.incrementAndGet()));
+        this.connectionsPool.execute(this::acceptConnections);
+
+        if (this.aggregator != null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor();
+            int flushInterval = Math.max(1, this.influxDBConfig.getInfluxdbFlushInterval());
+            this.scheduler.scheduleAtFixedRate(this::addAggregatedMetrics, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+
+        LOGGER.info("Relay is listening on the port --> " + this.getPort() + ", pre-aggregation --> " + (this.aggregator != null));
+    }
+
+    /**
+     * Gets the port the relay is listening on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops the relay: closes the connections, writes the last pre-aggregated points and the buffered records to InfluxDB.
+     */
+    @Override
+    public void close() {
+
+        try {
+            this.serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close the relay socket --> " + e.getMessage());
+        }
+
+        for (Socket socket : this.sockets) {
+            closeQuietly(socket);
+        }
+        this.connectionsPool.shutdown();
+
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+            try {
+                this.scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.addAggregatedMetrics();
+        }
+
+        InfluxDatabaseClientRegistry.release(this.client);
+        LOGGER.info("Relay has been stopped.");
+    }
+
+    /**
+     * Accepts the connections till the relay is closed.
+     */
+    private void acceptConnections() {
+
+        while (!this.serverSocket.isClosed()) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                this.sockets.add(socket);
+                this.connectionsPool.execute(() -> this.handleConnection(socket));
+            } catch (IOException e) {
+                if (!this.serverSocket.isClosed()) {
+                    LOGGER.error("Failed to accept the connection --> " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the batches of the connection till it is closed, handles and acknowledges each batch once its end is received.
+     *
+     * @param socket the socket of the connection.
+     */
+    private void handleConnection(Socket socket) {
+
+        LOGGER.info("Injector has been connected --> " + socket.getRemoteSocketAddress());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), READER_BUFFER_SIZE)) {
+            OutputStream output = socket.getOutputStream();
+            List<String> batch = new ArrayList<>();
+
+            String record;
+            while ((record = reader.readLine()) != null) {
+                if (record.isEmpty()) {
+                    // The empty line ends the batch.
+                    for (String batchRecord : batch) {
+                        this.handleRecord(batchRecord);
+                    }
+                    batch.clear();
+
+                    output.write(RelayClient.ACK);
+                    output.flush();
+                } else {
+                    batch.add(record);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                LOGGER.warn("Injector " + socket.getRemoteSocketAddress() + " has been disconnected in the middle of the batch, "
+                        + batch.size() + " records are dropped till the batch is resent.");
+            }
+        } catch (IOException e) {
+            if (!this.serverSocket.isClosed()) {
+                LOGGER.warn("Connection of the injector " + socket.getRemoteSocketAddress() + " has been broken --> " + e.getMessage());
+            }
+        } finally {
+            this.sockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Pre-aggregates the record if it is needed, otherwise puts it to the buffer of the {@link InfluxDatabaseClient}.
+     *
+     * @param record the line protocol record.
+     */
+    private void handleRecord(String record) {
+
+        if (this.aggregator != null && RelayAggregator.isAggregated(record)) {
+            try {
+                this.aggregator.add(record);
+                return;
+            } catch (IllegalArgumentException e) {
+                LOGGER.debug("The record is not aggregated --> " + e.getMessage());
+            }
+        }
+
+        this.client.collectData(record);
+    }
+
+    /**
+     * Writes the points pre-aggregated since the previous call.
+     */
+    private void addAggregatedMetrics() {
+
+        for (Point point : this.aggregator.getPoints(System.currentTimeMillis())) {
+            this.client.collectData(point);
+        }
+    }
+
+    /**
+     * Closes the socket quietly.
+     *
+     * @param socket the socket.
+     */
+    private static void closeQuietly(Socket socket) {
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing to do, the socket is not used anymore.
+        }
+    }
+
+    /**
+     * Starts the relay till the JVM is stopped.
+     * The arguments are the key=value pairs of the relay settings ({@link #KEY_RELAY_PORT}, {@link #KEY_RELAY_AGGREGATE}, {@link #KEY_RELAY_NODE_NAME})
+     * and of the InfluxDB settings of the listener (influxDBURL, influxDBToken, influxDBOrganization, influxDBBucket, influxDBMaxBatchSize, etc.);
+     * the settings not set are the defaults of the listener.
+     *
+     * @param args the key=value pairs.
+     * @throws IOException when the port can not be bound.
+     */
+    public static void main(String[] args) throws IOException {
+
+        Map<String, String> parameters = new HashMap<>(new InfluxDatabaseBackendListenerClient().getDefaultParameters().getArgumentsAsMap());
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expecting key=value as the relay argument, but you set " + arg);
+            }
+            parameters.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        RelayServer relay = new RelayServer(new BackendListenerContext(parameters));
+        relay.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(relay::close, "influxdb-relay-shutdown"));
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ErrorBodyMeasurement;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseUtility;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * The registry of the distinct failure bodies: each body is written once as the {@link ErrorBodyMeasurement} point,
+ * the samples carry only the hash of the body. The seen hashes are kept in the bounded table, the colliding hash replaces the previous one,
+ * so the evicted body is written again when it comes back.
+ * @author Michael Derevyanko
+ */
+public class ErrorBodyRegistry {
+
+    /**
+     * The amount of the hashes kept, the power of two.
+     */
+    private static final int CAPACITY = 4096;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long ONE_MS_IN_NANOSECONDS = 1000000L;
+
+    private final String constantTags;
+    private final Consumer<String> recordsConsumer;
+    private final AtomicLongArray seenHashes;
+
+    /**
+     * Creates the new instance of the {@link ErrorBodyRegistry}.
+     * @param runId the run id.
+     * @param testName the test name.
+     * @param nodeName the node name.
+     * @param recordsConsumer the consumer of the line protocol records of the new bodies.
+     */
+    public ErrorBodyRegistry(String runId, String testName, String nodeName, Consumer<String> recordsConsumer) {
+
+        StringBuilder tags = new StringBuilder();
+        appendTag(tags, ErrorBodyMeasurement.Tags.NODE_NAME, nodeName);
+        appendTag(tags, ErrorBodyMeasurement.Tags.RUN_ID, runId);
+        appendTag(tags, ErrorBodyMeasurement.Tags.TEST_NAME, testName);
+
+        this.constantTags = tags.toString();
+        this.recordsConsumer = recordsConsumer;
+        this.seenHashes = new AtomicLongArray(CAPACITY);
+    }
+
+    /**
+     * Registers the body, writes it if it was not seen before.
+     * @param body the body of the failed response.
+     * @return the hash of the body.
+     */
+    public String register(String body) {
+
+        long hash = getHash(body);
+        String hashValue = Long.toHexString(hash);
+
+        int index = (int) (hash & (CAPACITY - 1));
+        if (this.seenHashes.getAndSet(index, hash) != hash) {
+            this.recordsConsumer.accept(this.encode(hashValue, body));
+        }
+
+        return hashValue;
+    }
+
+    /**
+     * Encodes the body to the line protocol record with the nanoseconds precision.
+     * @param hashValue the hash of the body.
+     * @param body the body.
+     * @return the line protocol record.
+     */
+    private String encode(String hashValue, String body) {
+
+        StringBuilder builder = new StringBuilder(body.length() + 128);
+        InfluxDatabaseUtility.appendEscapedMeasurement(builder, ErrorBodyMeasurement.MEASUREMENT_NAME);
+
+        // The tags are sorted by key as InfluxDB expects.
+        appendTag(builder, ErrorBodyMeasurement.Tags.HASH, hashValue);
+        builder.append(this.constantTags);
+
+        builder.append(' ').append(ErrorBodyMeasurement.Fields.BODY).append("=\"");
+        InfluxDatabaseUtility.appendEscapedFieldValue(builder, body);
+        builder.append("\" ").append(System.currentTimeMillis() * ONE_MS_IN_NANOSECONDS);
+
+        return builder.toString();
+    }
+
+    /**
+     * Gets the 64-bit FNV-1a hash of the body, never 0 since 0 marks the empty slot.
+     * @param body the body.
+     * @return the hash.
+     */
+    private static long getHash(String body) {
+
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < body.length(); i++) {
+            hash ^= body.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Appends the tag, skips the tag with empty value as {@link com.influxdb.client.write.Point} does.
+     * @param builder the builder to append.
+     * @param key the tag key.
+     * @param value the tag value.
+     */
+    private static void appendTag(StringBuilder builder, String key, String value) {
+
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        builder.append(',');
+        InfluxDatabaseUtility.appendEscapedTag(builder, key);
+        builder.append('=');
+        InfluxDatabaseUtility.appendEscapedTag(builder, value);
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The decoder of the response body prefix. Decodes the bytes by the small chunks till the expected length is reached,
+ * and strips the line breaks and the leading and trailing whitespaces in the same pass, so the huge bodies are never decoded entirely.
+ * The decoder produces the whole characters only, so the multibyte characters are never broken; the high surrogate left without the pair is dropped.
+ * @author Michael Derevyanko
+ */
+public final class ResponseBodyDecoder {
+
+    /**
+     * The size of the chunk decoded at once.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private ResponseBodyDecoder() {
+    }
+
+    /**
+     * Decodes the response body prefix of the sample result by the sample encoding.
+     * @param sampleResult the {@link SampleResult}.
+     * @param maxLength the max length of the body.
+     * @return the body prefix without line breaks and leading and trailing whitespaces, empty string if there is no data.
+     */
+    public static String decode(SampleResult sampleResult, int maxLength) {
+
+        byte[] data = sampleResult.getResponseData();
+        if (data == null || data.length == 0 || maxLength <= 0) {
+            return "";
+        }
+
+        return decode(ByteBuffer.wrap(data), getCharset(sampleResult.getDataEncodingWithDefault()), maxLength);
+    }
+
+    /**
+     * Decodes the bytes by the chunks, stops once the max length is reached.
+     * @param input the bytes to decode.
+     * @param charset the charset.
+     * @param maxLength the max length of the body.
+     * @return the body prefix without line breaks and leading and trailing whitespaces.
+     */
+    private static String decode(ByteBuffer input, Charset charset, int maxLength) {
+
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        CharBuffer chunk = CharBuffer.allocate(Math.min(CHUNK_SIZE, maxLength));
+        StringBuilder builder = new StringBuilder(Math.min(CHUNK_SIZE, maxLength));
+        int trimmedLength = 0;
+
+        while (builder.length() < maxLength) {
+
+            CoderResult result = decoder.decode(input, chunk, true);
+            chunk.flip();
+
+            while (chunk.hasRemaining() && builder.length() < maxLength) {
+                char symbol = chunk.get();
+                if (symbol == '\n' || symbol == '\r' || (builder.length() == 0 && symbol <= ' ')) {
+                    continue;
+                }
+
+                builder.append(symbol);
+                if (symbol > ' ') {
+                    trimmedLength = builder.length();
+                }
+            }
+            chunk.clear();
+
+            // Underflow means all the bytes are decoded.
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+
+        builder.setLength(trimmedLength);
+        if (trimmedLength != 0 && Character.isHighSurrogate(builder.charAt(trimmedLength - 1))) {
+            builder.setLength(trimmedLength - 1);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Gets the charset by the name, UTF-8 if the name is not supported.
+     * @param name the charset name.
+     * @return the {@link Charset}.
+     */
+    private static Charset getCharset(String name) {
+
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
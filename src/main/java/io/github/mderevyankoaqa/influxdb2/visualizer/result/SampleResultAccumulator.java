@@ -0,0 +1,145 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The accumulator of the sample results statistics: counters and the high dynamic range histograms of the timings.
+ * Recording is lock-free and can be done from any thread; the snapshot must be taken by the single reader thread.
+ * @author Michael Derevyanko
+ */
+public class SampleResultAccumulator {
+
+    /**
+     * The precision of the histograms, 2 digits keeps the values with 1% accuracy.
+     */
+    private static final int HISTOGRAM_SIGNIFICANT_DIGITS = 2;
+
+    private final LongAdder count;
+    private final LongAdder errorCount;
+    private final LongAdder sentBytes;
+    private final LongAdder receivedBytes;
+    private final Recorder responseTimeRecorder;
+    private final Recorder latencyRecorder;
+    private final Recorder connectTimeRecorder;
+
+    private long snapshotCount;
+    private long snapshotErrorCount;
+    private long snapshotSentBytes;
+    private long snapshotReceivedBytes;
+    private Histogram responseTimeHistogram;
+    private Histogram latencyHistogram;
+    private Histogram connectTimeHistogram;
+
+    /**
+     * Creates the new instance of the {@link SampleResultAccumulator}.
+     */
+    public SampleResultAccumulator() {
+
+        this.count = new LongAdder();
+        this.errorCount = new LongAdder();
+        this.sentBytes = new LongAdder();
+        this.receivedBytes = new LongAdder();
+        this.responseTimeRecorder = new Recorder(HISTOGRAM_SIGNIFICANT_DIGITS);
+        this.latencyRecorder = new Recorder(HISTOGRAM_SIGNIFICANT_DIGITS);
+        this.connectTimeRecorder = new Recorder(HISTOGRAM_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Records the sample result.
+     * @param count the samples count.
+     * @param errorCount the errors count.
+     * @param sentBytes the sent bytes.
+     * @param receivedBytes the received bytes.
+     * @param responseTime the response time in ms.
+     * @param latency the latency in ms.
+     * @param connectTime the connect time in ms.
+     */
+    public void record(long count, long errorCount, long sentBytes, long receivedBytes, long responseTime, long latency, long connectTime) {
+
+        this.count.add(count);
+        this.errorCount.add(errorCount);
+        this.sentBytes.add(sentBytes);
+        this.receivedBytes.add(receivedBytes);
+        this.responseTimeRecorder.recordValue(Math.max(0, responseTime));
+        this.latencyRecorder.recordValue(Math.max(0, latency));
+        this.connectTimeRecorder.recordValue(Math.max(0, connectTime));
+    }
+
+    /**
+     * Takes the snapshot of the values recorded since the previous snapshot, resets the accumulator.
+     * @return true if there were recorded values; otherwise false.
+     */
+    public boolean takeSnapshot() {
+
+        this.snapshotCount = this.count.sumThenReset();
+        this.snapshotErrorCount = this.errorCount.sumThenReset();
+        this.snapshotSentBytes = this.sentBytes.sumThenReset();
+        this.snapshotReceivedBytes = this.receivedBytes.sumThenReset();
+
+        // The previous interval histograms are recycled.
+        this.responseTimeHistogram = this.responseTimeRecorder.getIntervalHistogram(this.responseTimeHistogram);
+        this.latencyHistogram = this.latencyRecorder.getIntervalHistogram(this.latencyHistogram);
+        this.connectTimeHistogram = this.connectTimeRecorder.getIntervalHistogram(this.connectTimeHistogram);
+
+        return this.responseTimeHistogram.getTotalCount() != 0;
+    }
+
+    /**
+     * Gets the samples count of the snapshot.
+     * @return the samples count.
+     */
+    public long getCount() {
+        return this.snapshotCount;
+    }
+
+    /**
+     * Gets the errors count of the snapshot.
+     * @return the errors count.
+     */
+    public long getErrorCount() {
+        return this.snapshotErrorCount;
+    }
+
+    /**
+     * Gets the sent bytes of the snapshot.
+     * @return the sent bytes.
+     */
+    public long getSentBytes() {
+        return this.snapshotSentBytes;
+    }
+
+    /**
+     * Gets the received bytes of the snapshot.
+     * @return the received bytes.
+     */
+    public long getReceivedBytes() {
+        return this.snapshotReceivedBytes;
+    }
+
+    /**
+     * Gets the response time histogram of the snapshot.
+     * @return the response time histogram.
+     */
+    public Histogram getResponseTimeHistogram() {
+        return this.responseTimeHistogram;
+    }
+
+    /**
+     * Gets the latency histogram of the snapshot.
+     * @return the latency histogram.
+     */
+    public Histogram getLatencyHistogram() {
+        return this.latencyHistogram;
+    }
+
+    /**
+     * Gets the connect time histogram of the snapshot.
+     * @return the connect time histogram.
+     */
+    public Histogram getConnectTimeHistogram() {
+        return this.connectTimeHistogram;
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestAggregatedMeasurement;
+import org.HdrHistogram.Histogram;
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates the sample results per sampler label and result (pass or fail) between the flushes,
+ * so one {@link RequestAggregatedMeasurement} point per label and result is written instead of the point per sample.
+ * @author Michael Derevyanko
+ */
+public class SampleResultAggregator {
+
+    private final Map<String, LabelAccumulators> accumulators;
+    private final String runId;
+    private final String testName;
+    private final String nodeName;
+
+    /**
+     * Creates the new instance of the {@link SampleResultAggregator}.
+     * @param runId the run id.
+     * @param testName the test name.
+     * @param nodeName the node name.
+     */
+    public SampleResultAggregator(String runId, String testName, String nodeName) {
+
+        this.accumulators = new ConcurrentHashMap<>();
+        this.runId = runId;
+        this.testName = testName;
+        this.nodeName = nodeName;
+    }
+
+    /**
+     * Adds the sample result to the accumulator of the label.
+     * @param label the label to aggregate by, the normalized sampler label.
+     * @param sampleResult the {@link SampleResult}.
+     * @param samplerType the type of sample, whether it is a request or a transaction controller.
+     */
+    public void add(String label, SampleResult sampleResult, String samplerType) {
+
+        this.add(label, samplerType, sampleResult.getErrorCount() == 0,
+                sampleResult.getSampleCount(),
+                sampleResult.getErrorCount(),
+                sampleResult.getSentBytes(),
+                sampleResult.getBytesAsLong(),
+                sampleResult.getTime(),
+                sampleResult.getLatency(),
+                sampleResult.getConnectTime());
+    }
+
+    /**
+     * Adds the values of the sample to the accumulator of the label, e.g. the ones of the {@link io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestMeasurement} record.
+     * @param label the label to aggregate by.
+     * @param samplerType the type of sample, whether it is a request or a transaction controller.
+     * @param passed set to true if the sample passed; otherwise false.
+     * @param count the samples count.
+     * @param errorCount the errors count.
+     * @param sentBytes the sent bytes.
+     * @param receivedBytes the received bytes.
+     * @param responseTime the response time in ms.
+     * @param latency the latency in ms.
+     * @param connectTime the connect time in ms.
+     */
+    public void add(String label, String samplerType, boolean passed, long count, long errorCount, long sentBytes, long receivedBytes,
+                    long responseTime, long latency, long connectTime) {
+
+        LabelAccumulators labelAccumulators = this.accumulators.get(label);
+        if (labelAccumulators == null) {
+            labelAccumulators = this.accumulators.computeIfAbsent(label, key -> new LabelAccumulators(samplerType));
+        }
+
+        SampleResultAccumulator accumulator = passed ? labelAccumulators.pass : labelAccumulators.fail;
+        accumulator.record(count, errorCount, sentBytes, receivedBytes, responseTime, latency, connectTime);
+    }
+
+    /**
+     * Gets the points aggregated since the previous call, resets the accumulators.
+     * Must be called by the single thread.
+     * @param timeInMs the time of the points.
+     * @return the {@link RequestAggregatedMeasurement} points, the labels without samples are skipped.
+     */
+    public List<Point> getPoints(long timeInMs) {
+
+        List<Point> points = new ArrayList<>();
+
+        for (Map.Entry<String, LabelAccumulators> entry : this.accumulators.entrySet()) {
+            LabelAccumulators labelAccumulators = entry.getValue();
+
+            if (labelAccumulators.pass.takeSnapshot()) {
+                points.add(this.getPoint(entry.getKey(), labelAccumulators.samplerType, "pass", labelAccumulators.pass, timeInMs));
+            }
+
+            if (labelAccumulators.fail.takeSnapshot()) {
+                points.add(this.getPoint(entry.getKey(), labelAccumulators.samplerType, "fail", labelAccumulators.fail, timeInMs));
+            }
+        }
+
+        return points;
+    }
+
+    /**
+     * Builds the aggregated point from the snapshot of the accumulator.
+     * @param label the sampler label.
+     * @param samplerType the sampler type.
+     * @param result the result, can be pass or fail.
+     * @param accumulator the {@link SampleResultAccumulator} with the taken snapshot.
+     * @param timeInMs the time of the point.
+     * @return the {@link RequestAggregatedMeasurement} point.
+     */
+    private Point getPoint(String label, String samplerType, String result, SampleResultAccumulator accumulator, long timeInMs) {
+
+        Point point = Point.measurement(RequestAggregatedMeasurement.MEASUREMENT_NAME).time(timeInMs, WritePrecision.MS)
+                .addTag(RequestAggregatedMeasurement.Tags.REQUEST_NAME, label)
+                .addTag(RequestAggregatedMeasurement.Tags.RUN_ID, this.runId)
+                .addTag(RequestAggregatedMeasurement.Tags.TEST_NAME, this.testName)
+                .addTag(RequestAggregatedMeasurement.Tags.NODE_NAME, this.nodeName)
+                .addTag(RequestAggregatedMeasurement.Tags.RESULT, result)
+                .addTag(RequestAggregatedMeasurement.Tags.SAMPLE_TYPE, samplerType)
+                .addField(RequestAggregatedMeasurement.Fields.REQUEST_COUNT, accumulator.getCount())
+                .addField(RequestAggregatedMeasurement.Fields.ERROR_COUNT, accumulator.getErrorCount())
+                .addField(RequestAggregatedMeasurement.Fields.SENT_BYTES, accumulator.getSentBytes())
+                .addField(RequestAggregatedMeasurement.Fields.RECEIVED_BYTES, accumulator.getReceivedBytes());
+
+        addStatistics(point, RequestAggregatedMeasurement.Fields.RESPONSE_TIME, accumulator.getResponseTimeHistogram());
+        addStatistics(point, RequestAggregatedMeasurement.Fields.LATENCY, accumulator.getLatencyHistogram());
+        addStatistics(point, RequestAggregatedMeasurement.Fields.CONNECT_TIME, accumulator.getConnectTimeHistogram());
+
+        return point;
+    }
+
+    /**
+     * Adds the fields calculated from the histogram: min, mean, percentiles and max.
+     * @param point the point to update.
+     * @param fieldPrefix the prefix of the fields.
+     * @param histogram the histogram.
+     */
+    static void addStatistics(Point point, String fieldPrefix, Histogram histogram) {
+
+        point.addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.MIN, histogram.getMinValue())
+                .addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.MEAN, histogram.getMean())
+                .addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.P50, histogram.getValueAtPercentile(50))
+                .addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.P90, histogram.getValueAtPercentile(90))
+                .addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.P95, histogram.getValueAtPercentile(95))
+                .addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.P99, histogram.getValueAtPercentile(99))
+                .addField(fieldPrefix + RequestAggregatedMeasurement.Statistics.MAX, histogram.getMaxValue());
+    }
+
+    /**
+     * The accumulators of the label.
+     */
+    private static final class LabelAccumulators {
+
+        private final String samplerType;
+        private final SampleResultAccumulator pass;
+        private final SampleResultAccumulator fail;
+
+        /**
+         * Creates the new instance of the {@link LabelAccumulators}.
+         * @param samplerType the type of sample of the label.
+         */
+        private LabelAccumulators(String samplerType) {
+            this.samplerType = samplerType;
+            this.pass = new SampleResultAccumulator();
+            this.fail = new SampleResultAccumulator();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.CardinalityGuard;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ListenerSettings;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestMeasurement;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseUtility;
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The encoder of the sample result to the {@link RequestMeasurement} line protocol record, without the {@link com.influxdb.client.write.Point}.
+ * The tags are written sorted by key, as InfluxDB expects them: the escaped tags of the label (nodeName, parentRequestName, requestName)
+ * and of the sampler type (runId, samplerType, testName) are cached, the tags of the sample are merged between them
+ * and the fields are appended to the reusable per thread builder.
+ * The errorMessage and errorResponseBody values pass the {@link CardinalityGuard}, the requestName and parentRequestName are passed by the caller,
+ * as they are the key of the unique timestamps as well.
+ * @author Michael Derevyanko
+ */
+public class SampleResultLineProtocolEncoder {
+
+    private static final String NO_DATA = "noData";
+    private static final int INITIAL_BUILDER_CAPACITY = 512;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUILDER_CAPACITY));
+
+    /**
+     * The max amount of the cached tag sets per parent label, protects from the unbounded growth with the dynamic labels.
+     */
+    private static final int MAX_CACHED_LABELS = 10000;
+
+    private final ListenerSettings settings;
+    private final CardinalityGuard cardinalityGuard;
+    private final ErrorBodyRegistry errorBodyRegistry;
+    private final String measurement;
+    private final Map<String, Map<String, String>> labelTags;
+    private final Map<String, String> samplerTypeTags;
+
+    /**
+     * Creates the new instance of the {@link SampleResultLineProtocolEncoder}.
+     * @param settings the {@link ListenerSettings}.
+     * @param cardinalityGuard the {@link CardinalityGuard}.
+     * @param errorBodyRegistry the {@link ErrorBodyRegistry}, null to save the failure body itself.
+     */
+    public SampleResultLineProtocolEncoder(ListenerSettings settings, CardinalityGuard cardinalityGuard, ErrorBodyRegistry errorBodyRegistry) {
+
+        this.settings = settings;
+        this.cardinalityGuard = cardinalityGuard;
+        this.errorBodyRegistry = errorBodyRegistry;
+        this.labelTags = new ConcurrentHashMap<>();
+        this.samplerTypeTags = new ConcurrentHashMap<>();
+
+        StringBuilder builder = new StringBuilder();
+        InfluxDatabaseUtility.appendEscapedMeasurement(builder, RequestMeasurement.MEASUREMENT_NAME);
+        this.measurement = builder.toString();
+    }
+
+    /**
+     * Encodes the sample result to the line protocol record.
+     * @param sampleResult the {@link SampleResult}.
+     * @param samplerType the type of sample, whether it is a request or a transaction controller.
+     * @param requestName the request name, already passed the {@link CardinalityGuard}.
+     * @param parentRequestName the parent request name, already passed the {@link CardinalityGuard}; null for the top level result.
+     * @param timestamp the timestamp in nanoseconds.
+     * @return the line protocol record with the nanoseconds precision.
+     */
+    public String encode(SampleResult sampleResult, String samplerType, String requestName, String parentRequestName, long timestamp) {
+
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+
+        this.encodeTo(builder, sampleResult, samplerType, requestName, parentRequestName, timestamp);
+        return builder.toString();
+    }
+
+    /**
+     * Appends the line protocol record to the builder.
+     * @param builder the builder to append.
+     * @param sampleResult the {@link SampleResult}.
+     * @param samplerType the type of sample, whether it is a request or a transaction controller.
+     * @param requestName the request name, already passed the {@link CardinalityGuard}.
+     * @param parentRequestName the parent request name, already passed the {@link CardinalityGuard}; null for the top level result.
+     * @param timestamp the timestamp in nanoseconds.
+     */
+    public void encodeTo(StringBuilder builder, SampleResult sampleResult, String samplerType, String requestName, String parentRequestName, long timestamp) {
+
+        String errorMessage = this.cardinalityGuard.getErrorMessage(getAssertionFailure(sampleResult));
+        String errorResponseBody = this.cardinalityGuard.getErrorResponseBody(getErrorBodyToBeSaved(sampleResult,
+                this.settings.isSaveResponseBodyOfFailures(), this.settings.getResponseBodyLength(), this.errorBodyRegistry));
+        boolean errorTextAsFields = this.cardinalityGuard.isErrorTextAsFields();
+
+        // The tags are merged by key: errorMessage, errorResponseBody, the label tags, responseCode, result, the sampler type tags.
+        builder.append(this.measurement);
+        if (!errorTextAsFields) {
+            appendTag(builder, RequestMeasurement.Tags.ERROR_MSG, errorMessage);
+            appendTag(builder, RequestMeasurement.Tags.ERROR_RESPONSE_BODY, errorResponseBody);
+        }
+        builder.append(this.getLabelTags(requestName, parentRequestName));
+        appendTag(builder, RequestMeasurement.Tags.RESULT_CODE, sampleResult.getResponseCode());
+        appendTag(builder, RequestMeasurement.Tags.RESULT, sampleResult.getErrorCount() == 0 ? "pass" : "fail");
+        builder.append(this.getSamplerTypeTags(samplerType));
+
+        builder.append(' ');
+        appendField(builder, RequestMeasurement.Fields.CONNECT_TIME, sampleResult.getConnectTime());
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.REQUEST_COUNT, sampleResult.getSampleCount());
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.ERROR_COUNT, sampleResult.getErrorCount());
+        if (errorTextAsFields) {
+            appendStringField(builder, RequestMeasurement.Tags.ERROR_MSG, errorMessage);
+            appendStringField(builder, RequestMeasurement.Tags.ERROR_RESPONSE_BODY, errorResponseBody);
+        }
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.LATENCY, sampleResult.getLatency());
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.PROCESSING_TIME, sampleResult.getLatency() - sampleResult.getConnectTime());
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.RECEIVED_BYTES, sampleResult.getBytesAsLong());
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.RESPONSE_TIME, sampleResult.getTime());
+        builder.append(',');
+        appendField(builder, RequestMeasurement.Fields.SENT_BYTES, sampleResult.getSentBytes());
+
+        builder.append(' ').append(timestamp);
+    }
+
+    /**
+     * Gets the escaped nodeName, parentRequestName and requestName tags of the label, builds them on the first use.
+     * @param requestName the request name, already passed the {@link CardinalityGuard}.
+     * @param parentRequestName the parent request name, already passed the {@link CardinalityGuard}; empty for the top level result.
+     * @return the tags with the leading comma.
+     */
+    private String getLabelTags(String requestName, String parentRequestName) {
+
+        if (requestName == null) {
+            requestName = "";
+        }
+        if (parentRequestName == null) {
+            parentRequestName = "";
+        }
+
+        // The parents are limited by the guard, so the outer map stays bounded.
+        Map<String, String> tags = this.labelTags.get(parentRequestName);
+        if (tags == null) {
+            tags = this.labelTags.computeIfAbsent(parentRequestName, key -> new ConcurrentHashMap<>());
+        }
+
+        String labelTags = tags.get(requestName);
+        if (labelTags != null) {
+            return labelTags;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        appendTag(builder, RequestMeasurement.Tags.NODE_NAME, this.settings.getNodeName());
+        appendTag(builder, RequestMeasurement.Tags.PARENT_REQUEST_NAME, parentRequestName);
+        appendTag(builder, RequestMeasurement.Tags.REQUEST_NAME, requestName);
+
+        labelTags = builder.toString();
+        if (tags.size() < MAX_CACHED_LABELS) {
+            tags.put(requestName, labelTags);
+        }
+
+        return labelTags;
+    }
+
+    /**
+     * Gets the escaped runId, samplerType and testName tags of the sampler type, builds them on the first use.
+     * @param samplerType the type of sample.
+     * @return the tags with the leading comma.
+     */
+    private String getSamplerTypeTags(String samplerType) {
+
+        String tags = this.samplerTypeTags.get(samplerType);
+        if (tags != null) {
+            return tags;
+        }
+
+        return this.samplerTypeTags.computeIfAbsent(samplerType, key -> {
+            StringBuilder builder = new StringBuilder();
+            appendTag(builder, RequestMeasurement.Tags.RUN_ID, this.settings.getRunId());
+            appendTag(builder, RequestMeasurement.Tags.SAMPLE_TYPE, key);
+            appendTag(builder, RequestMeasurement.Tags.TEST_NAME, this.settings.getTestName());
+            return builder.toString();
+        });
+    }
+
+    /**
+     * Gets the error body to be saved in the record.
+     * @param sampleResult the {@link SampleResult}.
+     * @param errorBodyToBeSaved set to true to save the body of the failed response.
+     * @param responseBodyLength the max length of the body.
+     * @param errorBodyRegistry the {@link ErrorBodyRegistry}, null to save the body itself.
+     * @return the normalized string if the body of the failed response is going to be saved; 'noData' string otherwise.
+     */
+    static String getErrorBodyToBeSaved(SampleResult sampleResult, boolean errorBodyToBeSaved, int responseBodyLength, ErrorBodyRegistry errorBodyRegistry) {
+
+        if (!errorBodyToBeSaved || sampleResult.isSuccessful() || sampleResult.getResponseData().length == 0) {
+            return NO_DATA;
+        }
+
+        // Only the prefix of the response data limited by the response body length is decoded.
+        String errorBody = ResponseBodyDecoder.decode(sampleResult, responseBodyLength);
+        if (errorBody.isEmpty() || errorBodyRegistry == null) {
+            return errorBody;
+        }
+
+        return errorBodyRegistry.register(errorBody);
+    }
+
+    /**
+     * Gets the assertion failure message.
+     * @param sampleResult the {@link SampleResult}.
+     * @return first non null assertion failure message if assertionResults is not null, 'noData' string otherwise.
+     */
+    static String getAssertionFailure(SampleResult sampleResult) {
+
+        String assertionMsg = sampleResult.getFirstAssertionFailureMessage();
+        return assertionMsg == null ? NO_DATA : assertionMsg;
+    }
+
+    /**
+     * Appends the tag, skips the tag with empty value as {@link com.influxdb.client.write.Point} does.
+     * @param builder the builder to append.
+     * @param key the tag key.
+     * @param value the tag value.
+     */
+    private static void appendTag(StringBuilder builder, String key, String value) {
+
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        builder.append(',');
+        InfluxDatabaseUtility.appendEscapedTag(builder, key);
+        builder.append('=');
+        InfluxDatabaseUtility.appendEscapedTag(builder, value);
+    }
+
+    /**
+     * Appends the integer field.
+     * @param builder the builder to append.
+     * @param key the field key.
+     * @param value the field value.
+     */
+    private static void appendField(StringBuilder builder, String key, long value) {
+        builder.append(key).append('=').append(value).append('i');
+    }
+
+    /**
+     * Appends the string field with the leading comma, skips the field with empty value.
+     * @param builder the builder to append.
+     * @param key the field key.
+     * @param value the field value.
+     */
+    private static void appendStringField(StringBuilder builder, String key, String value) {
+
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        builder.append(',').append(key).append("=\"");
+        InfluxDatabaseUtility.appendEscapedFieldValue(builder, value);
+        builder.append('"');
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the uniform random sample of the successful sample results per sampler label between the flushes:
+ * the reservoir of the fixed size is filled by the algorithm R, so each of the n samples of the interval is kept with the probability size / n.
+ * The decision is taken before the sample is encoded: {@link #reserve(String)} gives the ticket of the slot or -1,
+ * so the dropped samples are not encoded at all; the record of the reserved slot is set by {@link #put(String, long, String)}.
+ * @author Michael Derevyanko
+ */
+public class SampleResultSampler {
+
+    private final int reservoirSize;
+    private final Map<String, Reservoir> reservoirs;
+
+    /**
+     * Creates the new instance of the {@link SampleResultSampler}.
+     * @param reservoirSize the max amount of the kept samples per label and interval.
+     */
+    public SampleResultSampler(int reservoirSize) {
+
+        this.reservoirSize = reservoirSize;
+        this.reservoirs = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Decides whether the sample of the label is kept.
+     * @param label the sampler label, the normalized one.
+     * @return the ticket to put the record with, or -1 if the sample is dropped.
+     */
+    public long reserve(String label) {
+
+        Reservoir reservoir = this.reservoirs.get(label);
+        if (reservoir == null) {
+            reservoir = this.reservoirs.computeIfAbsent(label, key -> new Reservoir(this.reservoirSize));
+        }
+
+        return reservoir.reserve();
+    }
+
+    /**
+     * Puts the encoded record to the reserved slot. The record is skipped if the interval of the ticket is already drained.
+     * @param label the sampler label, the same as the one of {@link #reserve(String)}.
+     * @param ticket the ticket given by {@link #reserve(String)}.
+     * @param record the line protocol record of the sample.
+     */
+    public void put(String label, long ticket, String record) {
+
+        Reservoir reservoir = this.reservoirs.get(label);
+        if (reservoir != null && ticket >= 0) {
+            reservoir.put(ticket, record);
+        }
+    }
+
+    /**
+     * Gets the records kept since the previous call, resets the reservoirs.
+     * @return the line protocol records.
+     */
+    public List<String> drainRecords() {
+
+        List<String> records = new ArrayList<>();
+        for (Reservoir reservoir : this.reservoirs.values()) {
+            reservoir.drainTo(records);
+        }
+
+        return records;
+    }
+
+    /**
+     * The reservoir of the label. The ticket keeps the interval number in the high bits and the slot in the low bits.
+     */
+    private static final class Reservoir {
+
+        private final String[] records;
+        private long seen;
+        private long interval;
+
+        /**
+         * Creates the new instance of the {@link Reservoir}.
+         * @param size the size of the reservoir.
+         */
+        private Reservoir(int size) {
+            this.records = new String[size];
+        }
+
+        /**
+         * Reserves the slot for the next sample of the interval, the algorithm R.
+         * @return the ticket, or -1 if the sample is dropped.
+         */
+        private synchronized long reserve() {
+
+            long slot = this.seen++;
+            if (slot >= this.records.length) {
+                slot = ThreadLocalRandom.current().nextLong(this.seen);
+                if (slot >= this.records.length) {
+                    return -1;
+                }
+            }
+
+            return (this.interval << 32) | slot;
+        }
+
+        /**
+         * Puts the record to the slot of the ticket if the ticket belongs to the current interval.
+         * @param ticket the ticket.
+         * @param record the record.
+         */
+        private synchronized void put(long ticket, String record) {
+
+            if (ticket >>> 32 == this.interval) {
+                this.records[(int) ticket] = record;
+            }
+        }
+
+        /**
+         * Moves the kept records to the list, starts the next interval.
+         * @param target the list to fill.
+         */
+        private synchronized void drainTo(List<String> target) {
+
+            int kept = (int) Math.min(this.seen, this.records.length);
+            for (int i = 0; i < kept; i++) {
+                // The slot is empty if its record was not put yet.
+                if (this.records[i] != null) {
+                    target.add(this.records[i]);
+                    this.records[i] = null;
+                }
+            }
+
+            this.seen = 0;
+            this.interval = (this.interval + 1) & 0x7FFFFFFFL;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import org.apache.jmeter.samplers.SampleResult;
+
+/**
+ * The visitor of the sample result and its sub results, see {@link SampleResultWalker}.
+ * @author Michael Derevyanko
+ */
+@FunctionalInterface
+public interface SampleResultVisitor {
+
+    /**
+     * Visits the sample result.
+     * @param sampleResult the {@link SampleResult}.
+     * @param parent the parent {@link SampleResult}, null for the top level result.
+     */
+    void visit(SampleResult sampleResult, SampleResult parent);
+}
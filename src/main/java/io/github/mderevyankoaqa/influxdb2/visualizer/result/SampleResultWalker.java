@@ -0,0 +1,51 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import org.apache.jmeter.samplers.SampleResult;
+
+/**
+ * Walks the tree of the sample result: the result itself, its sub results, the sub results of them, etc.
+ * The results are passed to the {@link SampleResultVisitor} one by one, depth first, without collecting them to the list,
+ * so the nested transaction controllers and the embedded resources of any level are reached without the intermediate garbage.
+ * @author Michael Derevyanko
+ */
+public final class SampleResultWalker {
+
+    private SampleResultWalker() {
+    }
+
+    /**
+     * Walks the sample result and its sub results.
+     * @param sampleResult the top level {@link SampleResult}.
+     * @param maxDepth the max depth of the sub results to visit, 0 to visit the top level result only.
+     * @param visitor the {@link SampleResultVisitor}.
+     * @return the amount of the visited results.
+     */
+    public static int walk(SampleResult sampleResult, int maxDepth, SampleResultVisitor visitor) {
+        return walk(sampleResult, null, 0, maxDepth, visitor);
+    }
+
+    /**
+     * Visits the sample result, walks its sub results while the max depth is not reached.
+     * The depth is limited by the settings, so the recursion is bounded.
+     * @param sampleResult the {@link SampleResult}.
+     * @param parent the parent {@link SampleResult}, null for the top level result.
+     * @param depth the depth of the result, 0 for the top level result.
+     * @param maxDepth the max depth of the sub results to visit.
+     * @param visitor the {@link SampleResultVisitor}.
+     * @return the amount of the visited results.
+     */
+    private static int walk(SampleResult sampleResult, SampleResult parent, int depth, int maxDepth, SampleResultVisitor visitor) {
+
+        visitor.visit(sampleResult, parent);
+        int visited = 1;
+
+        if (depth < maxDepth) {
+            // JMeter gives the copy of the sub results only, the array is the single allocation per level.
+            for (SampleResult subResult : sampleResult.getSubResults()) {
+                visited += walk(subResult, sampleResult, depth + 1, maxDepth, visitor);
+            }
+        }
+
+        return visited;
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The generator of the point timestamps in nanoseconds based on the sample end time.
+ * InfluxDB overwrites the points with the same series and timestamp, so the timestamps are kept strictly increasing per requestName
+ * and parentRequestName, as they are written after the {@link io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.CardinalityGuard}:
+ * the samples ended in the same millisecond get the next nanoseconds. The labels normalized or collapsed to the same tag share the sequence,
+ * so the points are never overwritten.
+ * @author Michael Derevyanko
+ */
+public class SampleTimestampGenerator {
+
+    private static final long ONE_MS_IN_NANOSECONDS = 1000000L;
+
+    /**
+     * The max amount of the series tracked separately, the rest share the one sequence.
+     */
+    private static final int MAX_TRACKED_SERIES = 100000;
+
+    private final Map<String, Map<String, AtomicLong>> lastTimestamps;
+    private final AtomicInteger trackedSeries;
+    private final AtomicLong sharedLastTimestamp;
+
+    /**
+     * Creates the new instance of the {@link SampleTimestampGenerator}.
+     */
+    public SampleTimestampGenerator() {
+        this.lastTimestamps = new ConcurrentHashMap<>();
+        this.trackedSeries = new AtomicInteger();
+        this.sharedLastTimestamp = new AtomicLong();
+    }
+
+    /**
+     * Gets the unique timestamp of the sample result.
+     * @param sampleResult the {@link SampleResult}.
+     * @param requestName the request name tag, already passed the guard.
+     * @param parentRequestName the parent request name tag, already passed the guard; null for the top level result.
+     * @return the timestamp in nanoseconds.
+     */
+    public long getTimestamp(SampleResult sampleResult, String requestName, String parentRequestName) {
+
+        long endTime = sampleResult.getEndTime();
+        if (endTime <= 0) {
+            endTime = System.currentTimeMillis();
+        }
+
+        return this.getTimestamp(requestName, parentRequestName, endTime);
+    }
+
+    /**
+     * Gets the timestamp greater than any timestamp generated for the request name and the parent request name before.
+     * @param requestName the request name tag.
+     * @param parentRequestName the parent request name tag, null for the top level result.
+     * @param timeInMs the time in milliseconds.
+     * @return the timestamp in nanoseconds.
+     */
+    public long getTimestamp(String requestName, String parentRequestName, long timeInMs) {
+
+        long candidate = timeInMs * ONE_MS_IN_NANOSECONDS;
+
+        AtomicLong lastTimestamp = this.getLastTimestamp(requestName, parentRequestName == null ? "" : parentRequestName);
+        long previous;
+        long next;
+        do {
+            previous = lastTimestamp.get();
+            next = Math.max(candidate, previous + 1);
+        } while (!lastTimestamp.compareAndSet(previous, next));
+
+        return next;
+    }
+
+    /**
+     * Gets the last timestamp holder of the series.
+     * @param requestName the request name tag.
+     * @param parentRequestName the parent request name tag, empty for the top level result.
+     * @return the last timestamp holder.
+     */
+    private AtomicLong getLastTimestamp(String requestName, String parentRequestName) {
+
+        if (requestName == null) {
+            return this.sharedLastTimestamp;
+        }
+
+        Map<String, AtomicLong> parentTimestamps = this.lastTimestamps.get(parentRequestName);
+        if (parentTimestamps != null) {
+            AtomicLong lastTimestamp = parentTimestamps.get(requestName);
+            if (lastTimestamp != null) {
+                return lastTimestamp;
+            }
+        }
+
+        if (this.trackedSeries.get() >= MAX_TRACKED_SERIES) {
+            return this.sharedLastTimestamp;
+        }
+
+        if (parentTimestamps == null) {
+            parentTimestamps = this.lastTimestamps.computeIfAbsent(parentRequestName, key -> new ConcurrentHashMap<>());
+        }
+
+        return parentTimestamps.computeIfAbsent(requestName, key -> {
+            this.trackedSeries.incrementAndGet();
+            return new AtomicLong();
+        });
+    }
+}
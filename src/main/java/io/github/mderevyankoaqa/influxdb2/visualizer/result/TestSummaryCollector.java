@@ -0,0 +1,169 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.TestSummaryMeasurement;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the statistics of the whole test per sampler label: the counters and the high dynamic range histogram of the response time,
+ * so the {@link TestSummaryMeasurement} point per label is written when the test ends instead of calculating the percentiles
+ * over the raw points of the whole run.
+ * The recording is lock-free and can be done from any thread, the histogram of the label keeps 1% accuracy whatever the test length is.
+ * @author Michael Derevyanko
+ */
+public class TestSummaryCollector {
+
+    /**
+     * The precision of the histograms, 2 digits keeps the values with 1% accuracy.
+     */
+    private static final int HISTOGRAM_SIGNIFICANT_DIGITS = 2;
+
+    private final Map<String, LabelSummary> summaries;
+    private final LabelSummary total;
+    private final String runId;
+    private final String testName;
+    private final String nodeName;
+
+    /**
+     * Creates the new instance of the {@link TestSummaryCollector}.
+     * @param runId the run id.
+     * @param testName the test name.
+     * @param nodeName the node name.
+     */
+    public TestSummaryCollector(String runId, String testName, String nodeName) {
+
+        this.summaries = new ConcurrentHashMap<>();
+        this.total = new LabelSummary();
+        this.runId = runId;
+        this.testName = testName;
+        this.nodeName = nodeName;
+    }
+
+    /**
+     * Records the sample result.
+     * @param label the normalized sampler label.
+     * @param sampleResult the {@link SampleResult}.
+     * @param topLevel set to true for the top level sample result, only such results are counted to the totals of the node.
+     */
+    public void add(String label, SampleResult sampleResult, boolean topLevel) {
+
+        LabelSummary labelSummary = this.summaries.get(label);
+        if (labelSummary == null) {
+            labelSummary = this.summaries.computeIfAbsent(label, key -> new LabelSummary());
+        }
+
+        labelSummary.add(sampleResult);
+        if (topLevel) {
+            this.total.add(sampleResult);
+        }
+    }
+
+    /**
+     * Gets the summary points of the test, must be called once when the test ends.
+     * @param timeInMs the time of the points.
+     * @return the {@link TestSummaryMeasurement} points per label; the totals are written if there were samples.
+     */
+    public List<Point> getPoints(long timeInMs) {
+
+        List<Point> points = new ArrayList<>();
+        for (Map.Entry<String, LabelSummary> entry : this.summaries.entrySet()) {
+            Point point = entry.getValue().getPoint(entry.getKey(), timeInMs);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+
+        Point totalPoint = this.total.getPoint(TestSummaryMeasurement.Values.ALL, timeInMs);
+        if (totalPoint != null) {
+            points.add(totalPoint);
+        }
+
+        return points;
+    }
+
+    /**
+     * The statistics of the label.
+     */
+    private final class LabelSummary {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder receivedBytes = new LongAdder();
+        private final LongAdder responseTimeSum = new LongAdder();
+        private final LongAccumulator minResponseTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator maxResponseTime = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator firstStartTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastEndTime = new LongAccumulator(Math::max, 0);
+        private final Recorder responseTimeRecorder = new Recorder(HISTOGRAM_SIGNIFICANT_DIGITS);
+
+        /**
+         * Records the sample result.
+         * @param sampleResult the {@link SampleResult}.
+         */
+        void add(SampleResult sampleResult) {
+
+            long responseTime = Math.max(0, sampleResult.getTime());
+
+            this.count.add(sampleResult.getSampleCount());
+            this.errorCount.add(sampleResult.getErrorCount());
+            this.sentBytes.add(sampleResult.getSentBytes());
+            this.receivedBytes.add(sampleResult.getBytesAsLong());
+            this.responseTimeSum.add(responseTime);
+            this.minResponseTime.accumulate(responseTime);
+            this.maxResponseTime.accumulate(responseTime);
+            this.firstStartTime.accumulate(sampleResult.getStartTime());
+            this.lastEndTime.accumulate(sampleResult.getEndTime());
+            this.responseTimeRecorder.recordValue(responseTime);
+        }
+
+        /**
+         * Builds the summary point.
+         * @param label the sampler label.
+         * @param timeInMs the time of the point.
+         * @return the point; null if nothing was recorded.
+         */
+        Point getPoint(String label, long timeInMs) {
+
+            // The histogram since the start of the test, the min and max are exact, the percentiles are within the histogram precision.
+            Histogram histogram = this.responseTimeRecorder.getIntervalHistogram();
+            long recorded = histogram.getTotalCount();
+            if (recorded == 0) {
+                return null;
+            }
+
+            long samples = this.count.sum();
+            long errors = this.errorCount.sum();
+            double seconds = Math.max(1, this.lastEndTime.get() - this.firstStartTime.get()) / 1000.0;
+
+            return Point.measurement(TestSummaryMeasurement.MEASUREMENT_NAME).time(timeInMs, WritePrecision.MS)
+                    .addTag(TestSummaryMeasurement.Tags.REQUEST_NAME, label)
+                    .addTag(TestSummaryMeasurement.Tags.RUN_ID, TestSummaryCollector.this.runId)
+                    .addTag(TestSummaryMeasurement.Tags.TEST_NAME, TestSummaryCollector.this.testName)
+                    .addTag(TestSummaryMeasurement.Tags.NODE_NAME, TestSummaryCollector.this.nodeName)
+                    .addField(TestSummaryMeasurement.Fields.REQUEST_COUNT, samples)
+                    .addField(TestSummaryMeasurement.Fields.ERROR_COUNT, errors)
+                    .addField(TestSummaryMeasurement.Fields.ERROR_PCT, samples == 0 ? 0.0 : errors * 100.0 / samples)
+                    .addField(TestSummaryMeasurement.Fields.THROUGHPUT, samples / seconds)
+                    .addField(TestSummaryMeasurement.Fields.SENT_BYTES, this.sentBytes.sum())
+                    .addField(TestSummaryMeasurement.Fields.RECEIVED_BYTES, this.receivedBytes.sum())
+                    .addField(TestSummaryMeasurement.Fields.MEAN, (double) this.responseTimeSum.sum() / recorded)
+                    .addField(TestSummaryMeasurement.Fields.MIN, this.minResponseTime.get())
+                    .addField(TestSummaryMeasurement.Fields.P50, histogram.getValueAtPercentile(50))
+                    .addField(TestSummaryMeasurement.Fields.P90, histogram.getValueAtPercentile(90))
+                    .addField(TestSummaryMeasurement.Fields.P95, histogram.getValueAtPercentile(95))
+                    .addField(TestSummaryMeasurement.Fields.P99, histogram.getValueAtPercentile(99))
+                    .addField(TestSummaryMeasurement.Fields.MAX, this.maxResponseTime.get());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.ThroughputMeasurement;
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the samples, errors and bytes per sampler label on the sample path, so the live throughput is written
+ * as one small {@link ThroughputMeasurement} point per label each tick instead of being calculated from the raw points.
+ * The counters are striped, the producers do not contend on them; the points must be taken by the single thread.
+ * @author Michael Derevyanko
+ */
+public class ThroughputCounter {
+
+    private final Map<String, LabelCounters> counters;
+    private final LabelCounters total;
+    private final String runId;
+    private final String testName;
+    private final String nodeName;
+
+    /**
+     * Creates the new instance of the {@link ThroughputCounter}.
+     * @param runId the run id.
+     * @param testName the test name.
+     * @param nodeName the node name.
+     */
+    public ThroughputCounter(String runId, String testName, String nodeName) {
+
+        this.counters = new ConcurrentHashMap<>();
+        this.total = new LabelCounters();
+        this.runId = runId;
+        this.testName = testName;
+        this.nodeName = nodeName;
+    }
+
+    /**
+     * Counts the sample result.
+     * @param label the normalized sampler label.
+     * @param sampleResult the {@link SampleResult}.
+     * @param topLevel set to true for the top level sample result, only such results are counted to the totals of the node.
+     */
+    public void add(String label, SampleResult sampleResult, boolean topLevel) {
+
+        LabelCounters labelCounters = this.counters.get(label);
+        if (labelCounters == null) {
+            labelCounters = this.counters.computeIfAbsent(label, key -> new LabelCounters());
+        }
+
+        labelCounters.add(sampleResult);
+        if (topLevel) {
+            this.total.add(sampleResult);
+        }
+    }
+
+    /**
+     * Gets the points counted since the previous call, resets the counters.
+     * @param timeInMs the time of the points.
+     * @param elapsedInMs the time since the previous call, the rates are calculated by.
+     * @param activeThreads the amount of the active threads at the moment.
+     * @return the {@link ThroughputMeasurement} points, the labels without samples are skipped; the totals are always written.
+     */
+    public List<Point> getPoints(long timeInMs, long elapsedInMs, int activeThreads) {
+
+        double seconds = Math.max(1, elapsedInMs) / 1000.0;
+        List<Point> points = new ArrayList<>();
+
+        for (Map.Entry<String, LabelCounters> entry : this.counters.entrySet()) {
+            Point point = entry.getValue().getPoint(entry.getKey(), seconds, timeInMs);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+
+        Point totalPoint = this.total.getPoint(ThroughputMeasurement.Values.ALL, seconds, timeInMs);
+        if (totalPoint == null) {
+            totalPoint = this.getPoint(ThroughputMeasurement.Values.ALL, 0, 0, 0, 0, seconds, timeInMs);
+        }
+        points.add(totalPoint.addField(ThroughputMeasurement.Fields.ACTIVE_THREADS, activeThreads));
+
+        return points;
+    }
+
+    /**
+     * Builds the throughput point.
+     * @param label the sampler label.
+     * @param count the samples count.
+     * @param errorCount the errors count.
+     * @param sentBytes the sent bytes.
+     * @param receivedBytes the received bytes.
+     * @param seconds the interval of the counters in seconds.
+     * @param timeInMs the time of the point.
+     * @return the {@link ThroughputMeasurement} point.
+     */
+    private Point getPoint(String label, long count, long errorCount, long sentBytes, long receivedBytes, double seconds, long timeInMs) {
+
+        return Point.measurement(ThroughputMeasurement.MEASUREMENT_NAME).time(timeInMs, WritePrecision.MS)
+                .addTag(ThroughputMeasurement.Tags.REQUEST_NAME, label)
+                .addTag(ThroughputMeasurement.Tags.RUN_ID, this.runId)
+                .addTag(ThroughputMeasurement.Tags.TEST_NAME, this.testName)
+                .addTag(ThroughputMeasurement.Tags.NODE_NAME, this.nodeName)
+                .addField(ThroughputMeasurement.Fields.REQUEST_COUNT, count)
+                .addField(ThroughputMeasurement.Fields.ERROR_COUNT, errorCount)
+                .addField(ThroughputMeasurement.Fields.REQUEST_RATE, count / seconds)
+                .addField(ThroughputMeasurement.Fields.ERROR_RATE, errorCount / seconds)
+                .addField(ThroughputMeasurement.Fields.SENT_BYTES_RATE, sentBytes / seconds)
+                .addField(ThroughputMeasurement.Fields.RECEIVED_BYTES_RATE, receivedBytes / seconds);
+    }
+
+    /**
+     * The counters of the label.
+     */
+    private final class LabelCounters {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder receivedBytes = new LongAdder();
+
+        /**
+         * Counts the sample result.
+         * @param sampleResult the {@link SampleResult}.
+         */
+        void add(SampleResult sampleResult) {
+
+            this.count.add(sampleResult.getSampleCount());
+            this.errorCount.add(sampleResult.getErrorCount());
+            this.sentBytes.add(sampleResult.getSentBytes());
+            this.receivedBytes.add(sampleResult.getBytesAsLong());
+        }
+
+        /**
+         * Takes the counters and resets them.
+         * @param label the sampler label.
+         * @param seconds the interval of the counters in seconds.
+         * @param timeInMs the time of the point.
+         * @return the point; null if nothing was counted.
+         */
+        Point getPoint(String label, double seconds, long timeInMs) {
+
+            long samples = this.count.sumThenReset();
+            if (samples == 0) {
+                return null;
+            }
+
+            return ThroughputCounter.this.getPoint(label, samples, this.errorCount.sumThenReset(),
+                    this.sentBytes.sumThenReset(), this.receivedBytes.sumThenReset(), seconds, timeInMs);
+        }
+    }
+}
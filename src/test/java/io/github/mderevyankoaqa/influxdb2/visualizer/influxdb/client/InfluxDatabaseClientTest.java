@@ -0,0 +1,112 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.mderevyankoaqa.influxdb2.visualizer.InfluxDatabaseBackendListenerClient;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.OverflowPolicy;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the writer thread of the {@link InfluxDatabaseClient} never waits for the free space of its own buffer.
+ * @author Michael Derevyanko
+ */
+class InfluxDatabaseClientTest {
+
+    private static final int BUFFER_MAX_SIZE_MB = 1;
+    private static final int RECORD_BYTES = 1024;
+    private static final int RECORDS = BUFFER_MAX_SIZE_MB * 1024 * 1024 / RECORD_BYTES;
+    private static final int FLUSH_INTERVAL_MS = 1000;
+    private static final int BLOCK_TIMEOUT_MS = 10000;
+
+    private HttpServer influxDB;
+    private AtomicInteger writtenRecords;
+
+    @BeforeEach
+    void startInfluxDB() throws IOException {
+
+        this.writtenRecords = new AtomicInteger();
+        this.influxDB = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.influxDB.createContext("/", exchange -> {
+            InputStream body = exchange.getRequestBody();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                body = new GZIPInputStream(body);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                reader.lines().filter(line -> line.startsWith("filler ")).forEach(line -> this.writtenRecords.incrementAndGet());
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        this.influxDB.start();
+    }
+
+    @AfterEach
+    void stopInfluxDB() {
+        this.influxDB.stop(0);
+    }
+
+    @Test
+    void flushOfFullBlockingBufferDoesNotWait() throws Exception {
+
+        InfluxDatabaseClient client = InfluxDatabaseClientRegistry.acquire(this.newConfig(), LoggerFactory.getLogger(InfluxDatabaseClientTest.class));
+        try {
+            client.writeStatistics("Node", "R1", "Writer");
+
+            // The buffer is filled up exactly before the first flush, the statistics point of the flush does not fit then.
+            // The records have the same size, the line feed is counted by the buffer as well.
+            char[] value = new char[RECORD_BYTES - "filler v=\"\" 1000000".length() - 1];
+            Arrays.fill(value, 'x');
+            for (int i = 0; i < RECORDS; i++) {
+                client.collectData("filler v=\"" + new String(value) + "\" " + (1_000_000 + i));
+            }
+
+            // The flush sheds the statistics point and imports the buffer, instead of waiting for the block timeout.
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS * 4);
+            while (this.writtenRecords.get() < RECORDS && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertEquals(RECORDS, this.writtenRecords.get());
+        } finally {
+            InfluxDatabaseClientRegistry.release(client);
+        }
+    }
+
+    /**
+     * Creates the config of the client with the block overflow policy and the small buffer.
+     * @return the {@link InfluxDBConfig}.
+     */
+    private InfluxDBConfig newConfig() {
+
+        Map<String, String> parameters = new HashMap<>(new InfluxDatabaseBackendListenerClient().getDefaultParameters().getArgumentsAsMap());
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_URL, "http://127.0.0.1:" + this.influxDB.getAddress().getPort());
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_TOKEN, "token");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_ORG, "performance");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_BUCKET, "writer");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_FLUSH_INTERVAL, String.valueOf(FLUSH_INTERVAL_MS));
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_BUFFER_MAX_SIZE, String.valueOf(BUFFER_MAX_SIZE_MB));
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_OVERFLOW_POLICY, OverflowPolicy.BLOCK.toString());
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_OVERFLOW_BLOCK_TIMEOUT, String.valueOf(BLOCK_TIMEOUT_MS));
+
+        return new InfluxDBConfig(new BackendListenerContext(parameters));
+    }
+}
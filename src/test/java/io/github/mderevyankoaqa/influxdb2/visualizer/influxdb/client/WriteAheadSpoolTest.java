@@ -0,0 +1,84 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the {@link WriteAheadSpool} replays only the complete batches after the crash.
+ * @author Michael Derevyanko
+ */
+class WriteAheadSpoolTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteAheadSpoolTest.class);
+    private static final long MAX_SIZE_BYTES = 64 * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornBatchIsNotReplayed() throws IOException {
+
+        List<String> first = Arrays.asList("m v=1i 1", "m v=2i 2");
+        List<String> second = Collections.singletonList("m v=3i 3");
+        List<String> torn = Arrays.asList("m v=4i 4", "m v=5i 5");
+
+        WriteAheadSpool spool = new WriteAheadSpool(this.directory, MAX_SIZE_BYTES, LOGGER);
+        spool.append(first);
+        spool.append(second);
+        spool.append(torn);
+        spool.close();
+
+        // The length of the last batch reached the disk, the end of its payload did not.
+        Path segment;
+        try (Stream<Path> segments = Files.list(this.directory)) {
+            segment = segments.collect(Collectors.toList()).get(0);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(getRecordsSize(first, second, torn) - 1);
+            file.write(0);
+        }
+
+        spool = new WriteAheadSpool(this.directory, MAX_SIZE_BYTES, LOGGER);
+        try {
+            assertEquals(2, spool.getPendingBatches());
+            assertEquals(first, spool.peek());
+            spool.acknowledge();
+            assertEquals(second, spool.peek());
+            spool.acknowledge();
+            assertNull(spool.peek());
+        } finally {
+            spool.close();
+        }
+    }
+
+    /**
+     * Gets the size of the records with their headers: the length, the checksum and the state.
+     * @param batches the batches.
+     * @return the size in bytes.
+     */
+    @SafeVarargs
+    private static int getRecordsSize(List<String>... batches) {
+
+        int size = 0;
+        for (List<String> batch : batches) {
+            size += Integer.BYTES * 2 + 1 + String.join("\n", batch).getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.relay;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.mderevyankoaqa.influxdb2.visualizer.InfluxDatabaseBackendListenerClient;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.InfluxDBConfig;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestAggregatedMeasurement;
+import io.github.mderevyankoaqa.influxdb2.visualizer.config.RequestMeasurement;
+import io.github.mderevyankoaqa.influxdb2.visualizer.influxdb.client.InfluxDatabaseUtility;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the injectors, the {@link RelayServer} and the stub of InfluxDB locally: checks every record sent by the injectors reaches InfluxDB once.
+ * @author Michael Derevyanko
+ */
+class RelayServerTest {
+
+    private static final int INJECTORS = 3;
+    private static final int BATCHES_PER_INJECTOR = 5;
+    private static final int RECORDS_PER_BATCH = 50;
+    private static final String ERROR_MESSAGE = "Expected \"200\"\nbut was \\ \"500\"\r\n";
+    private static final Pattern COUNT_FIELD = Pattern.compile("[ ,]" + RequestAggregatedMeasurement.Fields.REQUEST_COUNT + "=(\\d+)i");
+
+    private HttpServer influxDB;
+    private List<String> writtenRecords;
+
+    @BeforeEach
+    void startInfluxDB() throws IOException {
+
+        this.writtenRecords = Collections.synchronizedList(new ArrayList<>());
+        this.influxDB = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.influxDB.createContext("/", exchange -> {
+            InputStream body = exchange.getRequestBody();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                body = new GZIPInputStream(body);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                reader.lines().filter(line -> !line.isEmpty()).forEach(this.writtenRecords::add);
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        this.influxDB.start();
+    }
+
+    @AfterEach
+    void stopInfluxDB() {
+        this.influxDB.stop(0);
+    }
+
+    @Test
+    void recordsOfSeveralInjectorsAreWrittenOnce() throws Exception {
+
+        RelayServer relay = this.startRelay(false);
+        try {
+            this.runInjectors(relay);
+        } finally {
+            relay.close();
+        }
+
+        StringBuilder errorMessageField = new StringBuilder(RequestMeasurement.Tags.ERROR_MSG).append("=\"");
+        InfluxDatabaseUtility.appendEscapedFieldValue(errorMessageField, ERROR_MESSAGE);
+        errorMessageField.append("\" ");
+
+        assertEquals(INJECTORS * BATCHES_PER_INJECTOR * RECORDS_PER_BATCH, this.writtenRecords.size());
+        for (String record : this.writtenRecords) {
+            // The multi-line error message stays in its record.
+            assertTrue(record.startsWith(RequestMeasurement.MEASUREMENT_NAME + ","), record);
+            assertTrue(record.contains(errorMessageField), record);
+        }
+        assertEquals(this.writtenRecords.size(), this.writtenRecords.stream().distinct().count());
+    }
+
+    @Test
+    void batchResentAfterBrokenConnectionIsAggregatedOnce() throws Exception {
+
+        RelayServer relay = this.startRelay(true);
+        try {
+            // The injector is disconnected in the middle of the batch and resends the whole batch.
+            List<String> batch = newBatch(INJECTORS, 0);
+            try (Socket socket = new Socket("127.0.0.1", relay.getPort())) {
+                OutputStream output = socket.getOutputStream();
+                for (String record : batch.subList(0, RECORDS_PER_BATCH / 2)) {
+                    output.write((record + '\n').getBytes(StandardCharsets.UTF_8));
+                }
+                output.flush();
+            }
+
+            RelayClient client = new RelayClient("127.0.0.1:" + relay.getPort());
+            client.write(batch);
+            client.close();
+
+            this.runInjectors(relay);
+        } finally {
+            relay.close();
+        }
+
+        long count = 0;
+        for (String record : this.writtenRecords) {
+            assertTrue(record.startsWith(RequestAggregatedMeasurement.MEASUREMENT_NAME + ","), record);
+            Matcher matcher = COUNT_FIELD.matcher(record);
+            assertTrue(matcher.find(), record);
+            count += Long.parseLong(matcher.group(1));
+        }
+        assertEquals((INJECTORS * BATCHES_PER_INJECTOR + 1) * RECORDS_PER_BATCH, count);
+    }
+
+    /**
+     * Starts the relay writing to the stub of InfluxDB.
+     * @param aggregate set to true to pre-aggregate the records.
+     * @return the started {@link RelayServer}.
+     * @throws IOException when the relay can not be started.
+     */
+    private RelayServer startRelay(boolean aggregate) throws IOException {
+
+        Map<String, String> parameters = new HashMap<>(new InfluxDatabaseBackendListenerClient().getDefaultParameters().getArgumentsAsMap());
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_URL, "http://127.0.0.1:" + this.influxDB.getAddress().getPort());
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_TOKEN, "token");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_ORG, "performance");
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_BUCKET, "relay-" + aggregate);
+        parameters.put(InfluxDBConfig.KEY_INFLUX_DB_FLUSH_INTERVAL, "200");
+        parameters.put(RelayServer.KEY_RELAY_PORT, "0");
+        parameters.put(RelayServer.KEY_RELAY_AGGREGATE, String.valueOf(aggregate));
+
+        RelayServer relay = new RelayServer(new BackendListenerContext(parameters));
+        relay.start();
+        return relay;
+    }
+
+    /**
+     * Sends the batches of all the injectors to the relay at the same time, each injector has its own {@link RelayClient}.
+     * @param relay the relay.
+     * @throws Exception when the batch is not accepted.
+     */
+    private void runInjectors(RelayServer relay) throws Exception {
+
+        ExecutorService injectors = Executors.newFixedThreadPool(INJECTORS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int injector = 0; injector < INJECTORS; injector++) {
+                int node = injector;
+                futures.add(injectors.submit(() -> {
+                    RelayClient client = new RelayClient("127.0.0.1:" + relay.getPort());
+                    try {
+                        for (int batch = 0; batch < BATCHES_PER_INJECTOR; batch++) {
+                            client.write(newBatch(node, batch));
+                        }
+                    } finally {
+                        client.close();
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            injectors.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the batch of the failed samples with the multi-line error message, the records of the batches are unique.
+     * @param node the number of the injector.
+     * @param batch the number of the batch.
+     * @return the line protocol records.
+     */
+    private static List<String> newBatch(int node, int batch) {
+
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < RECORDS_PER_BATCH; i++) {
+            StringBuilder builder = new StringBuilder(RequestMeasurement.MEASUREMENT_NAME)
+                    .append(",nodeName=Node").append(node)
+                    .append(",requestName=Home\\ Page,result=fail,runId=R1,samplerType=request,testName=Relay")
+                    .append(" connectTime=1i,count=1i,errorCount=1i,latency=5i,receivedBytes=100i,responseTime=").append(i + 1)
+                    .append("i,sentBytes=10i,").append(RequestMeasurement.Tags.ERROR_MSG).append("=\"");
+            InfluxDatabaseUtility.appendEscapedFieldValue(builder, ERROR_MESSAGE);
+            builder.append("\" ").append(1_700_000_000_000_000_000L + batch * RECORDS_PER_BATCH + i);
+            records.add(builder.toString());
+        }
+        return records;
+    }
+}
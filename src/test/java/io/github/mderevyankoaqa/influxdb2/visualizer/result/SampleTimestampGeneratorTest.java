@@ -0,0 +1,159 @@
+package io.github.mderevyankoaqa.influxdb2.visualizer.result;
+
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.CardinalityGuard;
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.NormalizationRules;
+import io.github.mderevyankoaqa.influxdb2.visualizer.cardinality.TagCardinalityGuard;
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the {@link SampleTimestampGenerator} never gives the same timestamp to two points of the same series.
+ * @author Michael Derevyanko
+ */
+class SampleTimestampGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int SAMPLES_PER_THREAD = 20000;
+    private static final long END_TIME = 1_700_000_000_000L;
+
+    @Test
+    void timestampsAreIncreasingPerSeries() {
+
+        SampleTimestampGenerator generator = new SampleTimestampGenerator();
+
+        long first = generator.getTimestamp("Home Page", null, END_TIME);
+        long second = generator.getTimestamp("Home Page", null, END_TIME);
+        long earlier = generator.getTimestamp("Home Page", null, END_TIME - 1);
+
+        assertEquals(END_TIME * 1_000_000L, first);
+        assertEquals(first + 1, second);
+        assertEquals(second + 1, earlier);
+
+        // The other series have their own sequences.
+        assertEquals(END_TIME * 1_000_000L, generator.getTimestamp("Home Page", "Login", END_TIME));
+        assertEquals(END_TIME * 1_000_000L, generator.getTimestamp("Search", null, END_TIME));
+    }
+
+    @Test
+    void concurrentSamplesOfTheSameLabelGetUniqueTimestamps() throws Exception {
+
+        SampleTimestampGenerator generator = new SampleTimestampGenerator();
+        Set<Long> timestamps = ConcurrentHashMap.newKeySet();
+
+        runConcurrently((thread, sample) -> {
+            long timestamp = generator.getTimestamp(newSample("Home Page"), "Home Page", null);
+            assertTrue(timestamp >= END_TIME * 1_000_000L);
+            assertTrue(timestamps.add(timestamp), "duplicate timestamp " + timestamp);
+        });
+
+        assertEquals(THREADS * SAMPLES_PER_THREAD, timestamps.size());
+    }
+
+    @Test
+    void labelsCollapsedByTheGuardGetUniqueTimestamps() throws Exception {
+
+        // The ids are normalized to the one label, the labels over the budget are collapsed to the overflow value.
+        CardinalityGuard guard = new CardinalityGuard(NormalizationRules.parse("/users/\\d+=>/users/{id}"), 3, false);
+        SampleTimestampGenerator generator = new SampleTimestampGenerator();
+        Set<String> points = ConcurrentHashMap.newKeySet();
+        Set<String> requestNames = ConcurrentHashMap.newKeySet();
+
+        runConcurrently((thread, sample) -> {
+            String label;
+            switch (sample % 3) {
+                case 0:
+                    label = "/users/" + sample;
+                    break;
+                case 1:
+                    label = "Dynamic " + thread + "-" + sample;
+                    break;
+                default:
+                    label = "Home Page";
+            }
+            String parentLabel = sample % 2 == 0 ? null : "Transaction " + (sample % 5);
+
+            // The same tags the listener writes.
+            String requestName = guard.getRequestName(label);
+            String parentRequestName = parentLabel == null ? null : guard.getRequestName(parentLabel);
+            long timestamp = generator.getTimestamp(newSample(label), requestName, parentRequestName);
+
+            requestNames.add(requestName);
+            String point = requestName + "|" + parentRequestName + "|" + timestamp;
+            assertTrue(points.add(point), "duplicate point " + point);
+        });
+
+        assertTrue(requestNames.contains("/users/{id}"));
+        assertTrue(requestNames.contains(TagCardinalityGuard.OVERFLOW_VALUE));
+        assertEquals(THREADS * SAMPLES_PER_THREAD, points.size());
+    }
+
+    /**
+     * Creates the sample ended at the same millisecond as the rest.
+     * @param label the sampler label.
+     * @return the {@link SampleResult}.
+     */
+    private static SampleResult newSample(String label) {
+
+        SampleResult sampleResult = SampleResult.createTestSample(END_TIME - 100, END_TIME);
+        sampleResult.setSampleLabel(label);
+        return sampleResult;
+    }
+
+    /**
+     * Runs the samples of all the threads at the same time.
+     * @param action the action per thread and sample number.
+     * @throws Exception when the action has failed.
+     */
+    private static void runConcurrently(SampleAction action) throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int sample = 0; sample < SAMPLES_PER_THREAD; sample++) {
+                        action.run(threadNumber, sample);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The action of the thread per sample.
+     */
+    private interface SampleAction {
+
+        /**
+         * Runs the action.
+         * @param thread the thread number.
+         * @param sample the sample number.
+         */
+        void run(int thread, int sample);
+    }
+}